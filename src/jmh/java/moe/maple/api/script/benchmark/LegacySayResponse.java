@@ -0,0 +1,116 @@
+package moe.maple.api.script.benchmark;
+
+import moe.maple.api.script.logic.response.ScriptResponse;
+import moe.maple.api.script.logic.event.PolledScriptEvent;
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.model.messenger.say.SayMessenger;
+import moe.maple.api.script.model.object.user.UserObject;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.model.messenger.say.SayMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * The say chain as it was before SayResponse became a cursor, kept for {@link SayBenchmark}.
+ */
+public class LegacySayResponse implements ScriptResponse {
+
+
+    public static final int END_CHAT = -1, PREV = 0, NEXT = 1;
+    private static final Logger log = LoggerFactory.getLogger(LegacySayResponse.class);
+
+    private final SayMessenger messenger;
+    private final MoeScript script;
+    private final int index;
+    private final SayMessage msg;
+    private final LegacySayResponse[] chain;
+
+    public LegacySayResponse(LegacySayResponse[] chain, SayMessenger messenger, MoeScript script, int index, SayMessage ctx) {
+        this.chain = chain;
+        this.messenger = messenger;
+        this.script = script;
+        this.index = index;
+        this.msg = ctx;
+    }
+
+    @Override
+    public void response(Number type, Number action, Object response) {
+        var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.SAY);
+        if (type.intValue() == real) {
+            switch (action.intValue()) {
+                case END_CHAT:
+                    script.escape();
+                    break;
+                case PREV:
+                    if (hasPrev()) {
+                        onResponse(chain[index-1]);
+                    } else {
+                        log.warn("Tried to go back while on the first message? No! :(");
+                        script.end();
+                    }
+                    break;
+                case NEXT:
+                    if (hasNext()) {
+                        onResponse(chain[index+1]);
+                    } else {
+                        script.setScriptResponse(null);
+                        script.resume(type, action, response);
+                    }
+                    break;
+                default:
+                    log.warn("Unhandled action({}) for {}", type, action);
+                    script.end();
+                    break;
+            }
+        } else {//Wrong type, b-baka.
+            log.error("Invalid ScriptMessageType for LegacySayResponse: {}", type);
+            script.end();
+        }
+    }
+
+    static void say(MoeScript script, SayMessenger messenger, List<SayMessage> saying) {
+        script.setScriptAction(null);
+        script.setScriptResponse(null);
+        var chain = new LegacySayResponse[saying.size()];
+        for (var i = 0; i < chain.length; i++)
+            chain[i] = new LegacySayResponse(chain, messenger, script, i, saying.get(i));
+        chain[0].onResponse(chain[0]);
+    }
+
+    public void onResponse(LegacySayResponse nextOrPrev) {
+        script.setScriptResponse(nextOrPrev);
+        script.addAfterRunEvent(
+            (PolledScriptEvent)moe -> script.getUserObject().ifPresentOrElse(nextOrPrev::sendTo,
+            () -> log.debug("User object isn't set, workflow is messy."))
+        );
+    }
+
+    public void sendTo(UserObject userObject) {
+        msg.onMessage(messenger, userObject, hasPrev(), hasNext() || scriptContinues());
+    }
+
+    private boolean scriptContinues() {
+        return !ScriptAPI.INSTANCE.getPreferences().shouldForceOkOnSay() && script.isNextActionSet();
+    }
+
+    private boolean hasPrev() {
+        return index > 0;//Could be safer here I guess.
+    }
+
+    private boolean hasNext() {
+        return index + 1 < size();
+    }
+
+    private int size() {
+        return chain.length;
+    }
+
+    @Override
+    public String toString() {
+        return msg.getMessage();//eh
+    }
+
+}
@@ -0,0 +1,59 @@
+package moe.maple.api.script.benchmark;
+
+import moe.maple.api.script.util.builder.MenuMarkup;
+import moe.maple.api.script.util.builder.ScriptMenuBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The old regex menu parsing against {@link MenuMarkup}, on a hand written eight item prompt.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MenuBenchmark {
+
+    private static final Pattern menuIndexPattern = Pattern.compile("#L+\\d[^\"]+?#l", Pattern.MULTILINE);
+
+    private static final String PROMPT = "Where would you like to go? The fare depends on the distance.\r\n#b"
+            + "#L0#Henesys (1,000 mesos)#l\r\n"
+            + "#L1#Ellinia (1,200 mesos)#l\r\n"
+            + "#L2#Perion (1,000 mesos)#l\r\n"
+            + "#L3#Kerning City (1,200 mesos)#l\r\n"
+            + "#L4#Lith Harbor (1,500 mesos)#l\r\n"
+            + "#L5#Sleepywood (2,000 mesos)#l\r\n"
+            + "#L6#Nautilus (1,000 mesos)#l\r\n"
+            + "#L7#Never mind#l";
+
+    private String copy;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        copy = new String(PROMPT); // Same text, different identity, never hits the cache.
+    }
+
+    @Benchmark
+    public int[] regex() {
+        var matcher = menuIndexPattern.matcher(PROMPT);
+        var list = new LinkedList<String>();
+        while (matcher.find())
+            list.add(matcher.group());
+        return list.stream().mapToInt(ScriptMenuBuilder::parseMenuIndex).toArray();
+    }
+
+    @Benchmark
+    public boolean scan() {
+        return MenuMarkup.scan(copy).indices().contains(7);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return MenuMarkup.of(PROMPT).indices().contains(7);
+    }
+}
@@ -0,0 +1,87 @@
+package moe.maple.api.script.benchmark;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.logic.response.SayResponse;
+import moe.maple.api.script.model.NpcScript;
+import moe.maple.api.script.model.messenger.say.SayMessage;
+import moe.maple.api.script.model.messenger.say.SayMessenger;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.test.TestUserObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paging through a 20 page say chain, the cursor against the old chain of responses.
+ * Run with <code>-prof gc</code> to see the allocation per page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SayBenchmark {
+
+    private static final int PAGES = 20;
+
+    @Param({ "cursor", "legacy" })
+    public String impl;
+
+    private Dialog script;
+
+    public class Dialog extends NpcScript {
+
+        private final List<SayMessage> pages = new ArrayList<>();
+        private final SayMessenger messenger;
+
+        Dialog(SayMessenger messenger) {
+            this.messenger = messenger;
+            for (var i = 0; i < PAGES; i++)
+                pages.add(new SayMessage(0, 9010000, 0, 0, "Page " + i));
+        }
+
+        @Override
+        protected void work() {
+            if (impl.equals("cursor"))
+                ScriptAPI.say(this, pages);
+            else
+                LegacySayResponse.say(this, messenger, pages);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole hole) {
+        SayMessenger messenger = (user, type, speaker, replace, param, message, prev, next) -> hole.consume(message);
+        ScriptAPI.INSTANCE.setMessengerSay(messenger);
+        script = new Dialog(messenger);
+        script.setUserObject(new TestUserObject());
+        script.start();
+    }
+
+    /**
+     * One page forward and one back, the chain is never finished so only paging is measured.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public boolean page() {
+        script.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+        script.resume(ScriptMessageType.SAY, SayResponse.PREV, null);
+        return script.isPaused();
+    }
+
+    /**
+     * Starts the chain and reads it through to the end.
+     */
+    @Benchmark
+    public boolean dialog() {
+        script.reset();
+        script.start();
+        for (var i = 0; i < PAGES; i++)
+            script.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+        return script.isDone();
+    }
+}
@@ -1,15 +1,23 @@
 module moe.maple.script.api {
     requires slf4j.api;
+    requires static java.compiler; // Only the annotation processor needs it, and only javac loads that.
 
     exports moe.maple.api.script.helper;
     exports moe.maple.api.script.logic;
+    exports moe.maple.api.script.logic.linear;
+    exports moe.maple.api.script.logic.session;
+    exports moe.maple.api.script.model;
     exports moe.maple.api.script.model.object;
     exports moe.maple.api.script.model.object.data.provider;
     exports moe.maple.api.script.model.object.data.safety;
     exports moe.maple.api.script.model.object.field;
     exports moe.maple.api.script.model.object.user;
     exports moe.maple.api.script.model.helper;
+    exports moe.maple.api.script.registry;
     exports moe.maple.api.script.util;
     exports moe.maple.api.script.util.triple;
     exports moe.maple.api.script.util.tuple;
+
+    uses moe.maple.api.script.registry.ScriptIndex;
+    provides javax.annotation.processing.Processor with moe.maple.api.script.registry.processor.ScriptIndexProcessor;
 }
\ No newline at end of file
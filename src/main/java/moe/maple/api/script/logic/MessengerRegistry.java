@@ -0,0 +1,448 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic;
+
+import moe.maple.api.script.model.messenger.*;
+import moe.maple.api.script.model.messenger.ask.*;
+import moe.maple.api.script.model.messenger.effect.field.FieldObjectMessenger;
+import moe.maple.api.script.model.messenger.effect.field.FieldScreenMessenger;
+import moe.maple.api.script.model.messenger.effect.field.FieldSoundMessenger;
+import moe.maple.api.script.model.messenger.effect.field.FieldTrembleMessenger;
+import moe.maple.api.script.model.messenger.effect.uel.AvatarOrientedMessenger;
+import moe.maple.api.script.model.messenger.effect.uel.PlayPortalSEMessenger;
+import moe.maple.api.script.model.messenger.effect.uel.ReservedEffectMessenger;
+import moe.maple.api.script.model.messenger.misc.StatChangedMessenger;
+import moe.maple.api.script.model.messenger.say.SayImageMessenger;
+import moe.maple.api.script.model.messenger.say.SayMessenger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Every messenger {@link ScriptAPI} sends through, as one immutable snapshot.
+ * ScriptAPI publishes a whole registry at once, so a send never sees half of a reload,
+ * and changing messengers at runtime needs no locking on the send path.
+ */
+public final class MessengerRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger( MessengerRegistry.class );
+
+    private static final MessengerRegistry LOGGING = createLogging();
+
+    private final AskAcceptMessenger askAccept;
+    private final AskAvatarMessenger askAvatar;
+    private final AskBoxTextMessenger askBoxText;
+    private final AskMemberShopAvatar askMemberShopAvatar;
+    private final AskMenuMessenger askMenu;
+    private final AskNumberMessenger askNumber;
+    private final AskQuizMessenger askQuiz;
+    private final AskSlideMenuMessenger askSlideMenu;
+    private final AskSpeedQuizMessenger askSpeedQuiz;
+    private final AskTextMessenger askText;
+    private final AskYesNoMessenger askYesNo;
+    private final SayImageMessenger sayImage;
+    private final SayMessenger say;
+    private final MessageMessenger message;
+    private final BalloonMessenger balloon;
+    private final ProgressMessenger progress;
+    private final StatChangedMessenger statChanged;
+    private final FieldObjectMessenger fieldObject;
+    private final FieldScreenMessenger fieldScreen;
+    private final FieldSoundMessenger fieldSound;
+    private final FieldTrembleMessenger fieldTremble;
+    private final AvatarOrientedMessenger avatarOriented;
+    private final PlayPortalSEMessenger playPortalSE;
+    private final ReservedEffectMessenger reservedEffect;
+
+    private MessengerRegistry(Builder builder) {
+        this.askAccept = builder.askAccept;
+        this.askAvatar = builder.askAvatar;
+        this.askBoxText = builder.askBoxText;
+        this.askMemberShopAvatar = builder.askMemberShopAvatar;
+        this.askMenu = builder.askMenu;
+        this.askNumber = builder.askNumber;
+        this.askQuiz = builder.askQuiz;
+        this.askSlideMenu = builder.askSlideMenu;
+        this.askSpeedQuiz = builder.askSpeedQuiz;
+        this.askText = builder.askText;
+        this.askYesNo = builder.askYesNo;
+        this.sayImage = builder.sayImage;
+        this.say = builder.say;
+        this.message = builder.message;
+        this.balloon = builder.balloon;
+        this.progress = builder.progress;
+        this.statChanged = builder.statChanged;
+        this.fieldObject = builder.fieldObject;
+        this.fieldScreen = builder.fieldScreen;
+        this.fieldSound = builder.fieldSound;
+        this.fieldTremble = builder.fieldTremble;
+        this.avatarOriented = builder.avatarOriented;
+        this.playPortalSE = builder.playPortalSE;
+        this.reservedEffect = builder.reservedEffect;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a registry where every messenger only logs, see {@link ScriptAPI#setDefaultMessengers()}
+     */
+    public static MessengerRegistry logging() {
+        return LOGGING;
+    }
+
+    /**
+     * @return a builder starting from this registry's messengers.
+     */
+    public Builder toBuilder() {
+        var builder = new Builder();
+        builder.askAccept = askAccept;
+        builder.askAvatar = askAvatar;
+        builder.askBoxText = askBoxText;
+        builder.askMemberShopAvatar = askMemberShopAvatar;
+        builder.askMenu = askMenu;
+        builder.askNumber = askNumber;
+        builder.askQuiz = askQuiz;
+        builder.askSlideMenu = askSlideMenu;
+        builder.askSpeedQuiz = askSpeedQuiz;
+        builder.askText = askText;
+        builder.askYesNo = askYesNo;
+        builder.sayImage = sayImage;
+        builder.say = say;
+        builder.message = message;
+        builder.balloon = balloon;
+        builder.progress = progress;
+        builder.statChanged = statChanged;
+        builder.fieldObject = fieldObject;
+        builder.fieldScreen = fieldScreen;
+        builder.fieldSound = fieldSound;
+        builder.fieldTremble = fieldTremble;
+        builder.avatarOriented = avatarOriented;
+        builder.playPortalSE = playPortalSE;
+        builder.reservedEffect = reservedEffect;
+        return builder;
+    }
+
+    private static MessengerRegistry createLogging() {
+        return builder()
+            // Basic script messages
+            .askAccept((userObject, speakerType, speakerTemplateId, param, message)
+                    -> log.debug("askAccept-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\"", speakerType, speakerTemplateId, param, message))
+            .askAvatar((userObject, speakerType, speakerTemplateId, param, message, options)
+                    -> log.debug("askAvatar-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\", options: {}", speakerType, speakerTemplateId, param, message, options))
+            .askBoxText((userObject, speakerType, speakerTemplateId, param, message, defaultText, column, row)
+                    -> log.debug("askBoxText-> speakerType: {}, speakerTemplate: {}, param: {}, column: {}, row: {}, default: \"{}\", message: \"{}\"", speakerType, speakerTemplateId, param, column, row, defaultText, message))
+            .askMemberShopAvatar((userObject, speakerType, speakerTemplateId, param, message, options)
+                    -> log.debug("askMemberShopAvatar-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\", options: {}", speakerType, speakerTemplateId, param, message, options))
+            .askMenu((userObject, speakerType, speakerTemplateId, param, message)
+                    -> log.debug("askMenu-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\"", speakerType, speakerTemplateId, param, message))
+            .askNumber((userObject, speakerType, speakerTemplateId, param, message, defaultNumber, min, max)
+                    -> log.debug("askNumber-> speakerType: {}, speakerTemplate: {}, param: {}, min: {}, max: {}, default: {}, message: \"{}\"", speakerType, speakerTemplateId, param, min, max, defaultNumber, message))
+            .askQuiz((userObject, speakerType, speakerTemplateId, param, title, problemText, hintText, min, max, remainInitialQuiz)
+                    -> log.debug("askQuiz-> speakerType: {}, speakerTemplate: {}, param: {}, min: {}, max: {}, remain: {}, title: \"{}\", problem: \"{}\", hint: \"{}\"", speakerType, speakerTemplateId, param, min, max, remainInitialQuiz, title, problemText, hintText))
+            .askSlideMenu((userObject, speakerType, speakerTemplateId, slideDlgEX, index, message)
+                    -> log.debug("askSlideMenu-> speakerType: {}, speakerTemplate: {}, slideDlgEX: {}, index: {}, message: \"{}\"", speakerType, speakerTemplateId, slideDlgEX, index, message))
+            .askSpeedQuiz((userObject, speakerType, speakerTemplateId, param, type, answer, correct, remaining, remainInitialQuiz, title, problemText, hintText, min, max)
+                    -> log.debug("askSpeedQuiz-> speakerType: {}, speakerTemplate: {}, param: {}, type: {}, answer: {}, correct: {}, remaining: {}, remain: {}, title: \"{}\", problem: \"{}\", hint: \"{}\", min: {}, max: {}",  speakerType, speakerTemplateId, param, type, answer, correct, remaining, remainInitialQuiz, title, problemText, hintText, min, max))
+            .askText((userObject, speakerType, speakerTemplateId, param, message, defaultText, min, max)
+                    -> log.debug("askText-> speakerType: {}, speakerTemplate: {}, param: {}, min: {}, max: {}, default: \"{}\", message: \"{}\"", speakerType, speakerTemplateId, param, min, max, defaultText, message))
+            .askYesNo((userObject, speakerType, speakerTemplateId, param, message)
+                    -> log.debug("askYesNo-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\"", speakerType, speakerTemplateId, param, message))
+            .sayImage((userObject, speakerType, speakerTemplateId, param, imagePath)
+                    -> log.debug("sayImage-> speakerType: {}, speakerTemplate: {}, param: {}, path: {}", speakerType, speakerTemplateId, param, imagePath))
+            .say((userObject, speakerType, speakerTemplateId, replaceTemplateId,  param, message, previous, next)
+                    -> log.debug("say-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\", prev: {}, next: {}", speakerType, speakerTemplateId, param, message, previous, next))
+
+            // Misc Packets
+            .message((userObject, type, message) -> log.debug("message-> type: {}, message: \"{}\"", type, message))
+            .balloon((userObject, message, width, timeoutInSeconds) -> log.debug("balloon-> width: {}, timeout: {}, message: \"{}\"", width, timeoutInSeconds, message))
+            .progress((userObject, message) -> log.debug("progress-> message:  \"{}\"", message))
+            .statChanged((userObject, exclRequest) -> log.debug("statChanged-> excl: {}", exclRequest))
+
+            // Field Effects
+            .fieldObject((userObject, path) -> log.debug("fieldObject-> path: {}", path))
+            .fieldScreen((userObject, path) -> log.debug("fieldScreen-> path: {}", path))
+            .fieldSound((userObject, path) -> log.debug("fieldSound-> path: {}", path))
+            .fieldTremble((userObject, type, delay) -> log.debug("fieldTremble-> type: {}, delay: {}", type, delay))
+
+            // User Local Effects
+            .avatarOriented((userObject, path, durationInSeconds) -> log.debug("avatarOriented-> path: {}, duration: {}", path, durationInSeconds))
+            .playPortalSE(userObject -> log.debug("playPortalSE->()"))
+            .reservedEffect((userObject, path) -> log.debug("reservedEffect-> path: {}", path))
+            .build();
+    }
+
+    // =================================================================================================================
+
+    public AskAcceptMessenger getAskAccept() {
+        return askAccept;
+    }
+
+    public AskAvatarMessenger getAskAvatar() {
+        return askAvatar;
+    }
+
+    public AskBoxTextMessenger getAskBoxText() {
+        return askBoxText;
+    }
+
+    public AskMemberShopAvatar getAskMemberShopAvatar() {
+        return askMemberShopAvatar;
+    }
+
+    public AskMenuMessenger getAskMenu() {
+        return askMenu;
+    }
+
+    public AskNumberMessenger getAskNumber() {
+        return askNumber;
+    }
+
+    public AskQuizMessenger getAskQuiz() {
+        return askQuiz;
+    }
+
+    public AskSlideMenuMessenger getAskSlideMenu() {
+        return askSlideMenu;
+    }
+
+    public AskSpeedQuizMessenger getAskSpeedQuiz() {
+        return askSpeedQuiz;
+    }
+
+    public AskTextMessenger getAskText() {
+        return askText;
+    }
+
+    public AskYesNoMessenger getAskYesNo() {
+        return askYesNo;
+    }
+
+    public SayImageMessenger getSayImage() {
+        return sayImage;
+    }
+
+    public SayMessenger getSay() {
+        return say;
+    }
+
+    public MessageMessenger getMessage() {
+        return message;
+    }
+
+    public BalloonMessenger getBalloon() {
+        return balloon;
+    }
+
+    public ProgressMessenger getProgress() {
+        return progress;
+    }
+
+    public StatChangedMessenger getStatChanged() {
+        return statChanged;
+    }
+
+    public FieldObjectMessenger getFieldObject() {
+        return fieldObject;
+    }
+
+    public FieldScreenMessenger getFieldScreen() {
+        return fieldScreen;
+    }
+
+    public FieldSoundMessenger getFieldSound() {
+        return fieldSound;
+    }
+
+    public FieldTrembleMessenger getFieldTremble() {
+        return fieldTremble;
+    }
+
+    public AvatarOrientedMessenger getAvatarOriented() {
+        return avatarOriented;
+    }
+
+    public PlayPortalSEMessenger getPlayPortalSE() {
+        return playPortalSE;
+    }
+
+    public ReservedEffectMessenger getReservedEffect() {
+        return reservedEffect;
+    }
+
+    // =================================================================================================================
+
+    public static final class Builder {
+
+        private AskAcceptMessenger askAccept;
+        private AskAvatarMessenger askAvatar;
+        private AskBoxTextMessenger askBoxText;
+        private AskMemberShopAvatar askMemberShopAvatar;
+        private AskMenuMessenger askMenu;
+        private AskNumberMessenger askNumber;
+        private AskQuizMessenger askQuiz;
+        private AskSlideMenuMessenger askSlideMenu;
+        private AskSpeedQuizMessenger askSpeedQuiz;
+        private AskTextMessenger askText;
+        private AskYesNoMessenger askYesNo;
+        private SayImageMessenger sayImage;
+        private SayMessenger say;
+        private MessageMessenger message;
+        private BalloonMessenger balloon;
+        private ProgressMessenger progress;
+        private StatChangedMessenger statChanged;
+        private FieldObjectMessenger fieldObject;
+        private FieldScreenMessenger fieldScreen;
+        private FieldSoundMessenger fieldSound;
+        private FieldTrembleMessenger fieldTremble;
+        private AvatarOrientedMessenger avatarOriented;
+        private PlayPortalSEMessenger playPortalSE;
+        private ReservedEffectMessenger reservedEffect;
+
+        private Builder() { }
+
+        public Builder askAccept(AskAcceptMessenger askAccept) {
+            this.askAccept = askAccept;
+            return this;
+        }
+
+        public Builder askAvatar(AskAvatarMessenger askAvatar) {
+            this.askAvatar = askAvatar;
+            return this;
+        }
+
+        public Builder askBoxText(AskBoxTextMessenger askBoxText) {
+            this.askBoxText = askBoxText;
+            return this;
+        }
+
+        public Builder askMemberShopAvatar(AskMemberShopAvatar askMemberShopAvatar) {
+            this.askMemberShopAvatar = askMemberShopAvatar;
+            return this;
+        }
+
+        public Builder askMenu(AskMenuMessenger askMenu) {
+            this.askMenu = askMenu;
+            return this;
+        }
+
+        public Builder askNumber(AskNumberMessenger askNumber) {
+            this.askNumber = askNumber;
+            return this;
+        }
+
+        public Builder askQuiz(AskQuizMessenger askQuiz) {
+            this.askQuiz = askQuiz;
+            return this;
+        }
+
+        public Builder askSlideMenu(AskSlideMenuMessenger askSlideMenu) {
+            this.askSlideMenu = askSlideMenu;
+            return this;
+        }
+
+        public Builder askSpeedQuiz(AskSpeedQuizMessenger askSpeedQuiz) {
+            this.askSpeedQuiz = askSpeedQuiz;
+            return this;
+        }
+
+        public Builder askText(AskTextMessenger askText) {
+            this.askText = askText;
+            return this;
+        }
+
+        public Builder askYesNo(AskYesNoMessenger askYesNo) {
+            this.askYesNo = askYesNo;
+            return this;
+        }
+
+        public Builder sayImage(SayImageMessenger sayImage) {
+            this.sayImage = sayImage;
+            return this;
+        }
+
+        public Builder say(SayMessenger say) {
+            this.say = say;
+            return this;
+        }
+
+        public Builder message(MessageMessenger message) {
+            this.message = message;
+            return this;
+        }
+
+        public Builder balloon(BalloonMessenger balloon) {
+            this.balloon = balloon;
+            return this;
+        }
+
+        public Builder progress(ProgressMessenger progress) {
+            this.progress = progress;
+            return this;
+        }
+
+        public Builder statChanged(StatChangedMessenger statChanged) {
+            this.statChanged = statChanged;
+            return this;
+        }
+
+        public Builder fieldObject(FieldObjectMessenger fieldObject) {
+            this.fieldObject = fieldObject;
+            return this;
+        }
+
+        public Builder fieldScreen(FieldScreenMessenger fieldScreen) {
+            this.fieldScreen = fieldScreen;
+            return this;
+        }
+
+        public Builder fieldSound(FieldSoundMessenger fieldSound) {
+            this.fieldSound = fieldSound;
+            return this;
+        }
+
+        public Builder fieldTremble(FieldTrembleMessenger fieldTremble) {
+            this.fieldTremble = fieldTremble;
+            return this;
+        }
+
+        public Builder avatarOriented(AvatarOrientedMessenger avatarOriented) {
+            this.avatarOriented = avatarOriented;
+            return this;
+        }
+
+        public Builder playPortalSE(PlayPortalSEMessenger playPortalSE) {
+            this.playPortalSE = playPortalSE;
+            return this;
+        }
+
+        public Builder reservedEffect(ReservedEffectMessenger reservedEffect) {
+            this.reservedEffect = reservedEffect;
+            return this;
+        }
+
+        public MessengerRegistry build() {
+            return new MessengerRegistry(this);
+        }
+    }
+}
@@ -26,9 +26,11 @@ import moe.maple.api.script.logic.action.*;
 import moe.maple.api.script.logic.chain.BasicActionChain;
 import moe.maple.api.script.logic.chain.IntegerActionChain;
 import moe.maple.api.script.logic.chain.StringActionChain;
-import moe.maple.api.script.logic.response.SayResponse;
+import moe.maple.api.script.logic.response.*;
 import moe.maple.api.script.model.ScriptPreferences;
+import moe.maple.api.script.model.helper.DialogDefinition;
 import moe.maple.api.script.model.helper.MenuItem;
+import moe.maple.api.script.model.helper.ScriptMenu;
 import moe.maple.api.script.model.helper.SlideItem;
 import moe.maple.api.script.model.messenger.*;
 import moe.maple.api.script.model.messenger.ask.*;
@@ -43,78 +45,36 @@ import moe.maple.api.script.model.messenger.misc.StatChangedMessenger;
 import moe.maple.api.script.model.messenger.say.SayImageMessenger;
 import moe.maple.api.script.model.messenger.say.SayMessage;
 import moe.maple.api.script.model.messenger.say.SayMessenger;
-import moe.maple.api.script.logic.response.ScriptResponse;
 import moe.maple.api.script.model.object.user.UserObject;
 import moe.maple.api.script.model.MoeScript;
 import moe.maple.api.script.model.type.ScriptMessageType;
 import moe.maple.api.script.util.Moematter;
-import moe.maple.api.script.util.builder.ScriptMenuBuilder;
+import moe.maple.api.script.util.builder.MenuMarkup;
 import moe.maple.api.script.util.builder.ScriptStringBuilder;
 import moe.maple.api.script.util.tuple.Tuple;
+import moe.maple.api.script.util.Trace;
 import moe.maple.api.script.util.With;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 public enum ScriptAPI {
     INSTANCE;
     private static final Logger log = LoggerFactory.getLogger( ScriptAPI.class );
 
-    private AskAcceptMessenger messengerAskAccept;
-    private AskAvatarMessenger messengerAskAvatar;
-    private AskBoxTextMessenger messengerAskBoxText;
-    private AskMemberShopAvatar messengerAskMemberShopAvatar;
-    private AskMenuMessenger messengerAskMenu;
-    private AskNumberMessenger messengerAskNumber;
-    private AskQuizMessenger messengerAskQuiz;
-    private AskSlideMenuMessenger messengerAskSlideMenu;
-    private AskSpeedQuizMessenger messengerAskSpeedQuiz;
-    private AskTextMessenger messengerAskText;
-    private AskYesNoMessenger messengerAskYesNo;
-    private SayImageMessenger messengerSayImage;
-    private SayMessenger messengerSay;
-
-    // =================================================================================================================
-
-    private MessageMessenger messengerMessage;
-    private BalloonMessenger messengerBalloon;
-    private ProgressMessenger messengerProgress;
-    private StatChangedMessenger messengerStatChanged;
-
-    // =================================================================================================================
-
-    /*
-     * Field Effects
-     */
-
-    private FieldObjectMessenger messengerFieldObject;
-    private FieldScreenMessenger messengerFieldScreen;
-    private FieldSoundMessenger messengerFieldSound;
-    private FieldTrembleMessenger messengerFieldTremble;
-
-    // =================================================================================================================
-
-    /*
-     * User Effect Locals
-     */
-
-    private AvatarOrientedMessenger messengerAvatarOriented;
-    private PlayPortalSEMessenger messengerPlayPortalSE;
-    private ReservedEffectMessenger messengerReservedEffect;
-
-    // =================================================================================================================
+    private volatile MessengerRegistry messengers;
 
     private final ScriptPreferences preferences;
 
-    private final Map<Integer, Integer> typeMap;
+    // Indexed by ScriptMessageType, replaced whole on every change. Types past the end map to themselves.
+    private volatile int[] typeMap;
 
     ScriptAPI() {
         this.preferences = ScriptPreferences.DEFAULT;
-        this.typeMap = new HashMap<>();
+        this.messengers = MessengerRegistry.logging();
+        this.typeMap = identityTypes(ScriptMessageType.ASKCENTER + 1);
     }
 
     // =================================================================================================================
@@ -126,12 +86,26 @@ public enum ScriptAPI {
      * @param scriptMessageType - See {@link ScriptMessageType}
      * @param value             - Your server's value.
      */
-    public void setScriptMessageType(int scriptMessageType, int value) {
-        typeMap.put(scriptMessageType, value);
+    public synchronized void setScriptMessageType(int scriptMessageType, int value) {
+        if (scriptMessageType < 0)
+            throw new IllegalArgumentException("ScriptMessageType can't be negative: " + scriptMessageType);
+        var old = typeMap;
+        var map = identityTypes(Math.max(old.length, scriptMessageType + 1));
+        System.arraycopy(old, 0, map, 0, old.length);
+        map[scriptMessageType] = value;
+        this.typeMap = map;
     }
 
     public int getScriptMessageType(int scriptMessageType) {
-        return typeMap.getOrDefault(scriptMessageType, scriptMessageType);
+        var map = typeMap;
+        return scriptMessageType >= 0 && scriptMessageType < map.length ? map[scriptMessageType] : scriptMessageType;
+    }
+
+    private static int[] identityTypes(int length) {
+        var map = new int[length];
+        for (var i = 0; i < length; i++)
+            map[i] = i;
+        return map;
     }
 
     // =================================================================================================================
@@ -139,162 +113,133 @@ public enum ScriptAPI {
     /**
      * Sets default messengers to logging messengers.
      */
-    public void setDefaultMessengers() {
-        // Basic script messages
-        messengerAskAccept = (userObject, speakerType, speakerTemplateId, param, message)
-                -> log.debug("askAccept-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\"", speakerType, speakerTemplateId, param, message);
-        messengerAskAvatar = (userObject, speakerType, speakerTemplateId, param, message, options)
-                -> log.debug("askAvatar-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\", options: {}", speakerType, speakerTemplateId, param, message, options);
-        messengerAskBoxText = (userObject, speakerType, speakerTemplateId, param, message, defaultText, column, row)
-                -> log.debug("askBoxText-> speakerType: {}, speakerTemplate: {}, param: {}, column: {}, row: {}, default: \"{}\", message: \"{}\"", speakerType, speakerTemplateId, param, column, row, defaultText, message);
-        messengerAskMemberShopAvatar = (userObject, speakerType, speakerTemplateId, param, message, options)
-                -> log.debug("askMemberShopAvatar-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\", options: {}", speakerType, speakerTemplateId, param, message, options);
-        messengerAskMenu = (userObject, speakerType, speakerTemplateId, param, message)
-                -> log.debug("askMenu-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\"", speakerType, speakerTemplateId, param, message);
-        messengerAskNumber = (userObject, speakerType, speakerTemplateId, param, message, defaultNumber, min, max)
-                -> log.debug("askNumber-> speakerType: {}, speakerTemplate: {}, param: {}, min: {}, max: {}, default: {}, message: \"{}\"", speakerType, speakerTemplateId, param, min, max, defaultNumber, message);
-        messengerAskQuiz = (userObject, speakerType, speakerTemplateId, param, title, problemText, hintText, min, max, remainInitialQuiz)
-                -> log.debug("askQuiz-> speakerType: {}, speakerTemplate: {}, param: {}, min: {}, max: {}, remain: {}, title: \"{}\", problem: \"{}\", hint: \"{}\"", speakerType, speakerTemplateId, param, min, max, remainInitialQuiz, title, problemText, hintText);
-        messengerAskSlideMenu = (userObject, speakerType, speakerTemplateId, slideDlgEX, index, message)
-                -> log.debug("askSlideMenu-> speakerType: {}, speakerTemplate: {}, slideDlgEX: {}, index: {}, message: \"{}\"", speakerType, speakerTemplateId, slideDlgEX, index, message);
-        messengerAskSpeedQuiz = (userObject, speakerType, speakerTemplateId, param, type, answer, correct, remaining, remainInitialQuiz, title, problemText, hintText, min, max)
-                -> log.debug("askSpeedQuiz-> speakerType: {}, speakerTemplate: {}, param: {}, type: {}, answer: {}, correct: {}, remaining: {}, remain: {}, title: \"{}\", problem: \"{}\", hint: \"{}\", min: {}, max: {}",  speakerType, speakerTemplateId, param, type, answer, correct, remaining, remainInitialQuiz, title, problemText, hintText, min, max);
-        messengerAskText = (userObject, speakerType, speakerTemplateId, param, message, defaultText, min, max)
-                -> log.debug("askText-> speakerType: {}, speakerTemplate: {}, param: {}, min: {}, max: {}, default: \"{}\", message: \"{}\"", speakerType, speakerTemplateId, param, min, max, defaultText, message);
-        messengerAskYesNo = (userObject, speakerType, speakerTemplateId, param, message)
-                -> log.debug("askYesNo-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\"", speakerType, speakerTemplateId, param, message);
-        messengerSayImage = (userObject, speakerType, speakerTemplateId, param, imagePath)
-                -> log.debug("sayImage-> speakerType: {}, speakerTemplate: {}, param: {}, path: {}", speakerType, speakerTemplateId, param, imagePath);
-        messengerSay = (userObject, speakerType, speakerTemplateId, replaceTemplateId,  param, message, previous, next)
-                -> log.debug("say-> speakerType: {}, speakerTemplate: {}, param: {}, message: \"{}\", prev: {}, next: {}", speakerType, speakerTemplateId, param, message, previous, next);
-
-        // Misc Packets
-        messengerMessage = ((userObject, type, message) -> log.debug("message-> type: {}, message: \"{}\"", type, message));
-        messengerBalloon = ((userObject, message, width, timeoutInSeconds) -> log.debug("balloon-> width: {}, timeout: {}, message: \"{}\"", width, timeoutInSeconds, message));
-        messengerProgress= ((userObject, message) -> log.debug("progress-> message:  \"{}\"", message));
-        messengerStatChanged = (userObject, exclRequest) -> log.debug("statChanged-> excl: {}", exclRequest);
-
-        // Field Effects
-        messengerFieldObject = (userObject, path) -> log.debug("fieldObject-> path: {}", path);
-        messengerFieldScreen = (userObject, path) -> log.debug("fieldScreen-> path: {}", path);
-        messengerFieldSound = (userObject, path) -> log.debug("fieldSound-> path: {}", path);
-        messengerFieldTremble = (userObject, type, delay) -> log.debug("fieldTremble-> type: {}, delay: {}", type, delay);
-
-        // User Local Effects
-        messengerAvatarOriented = (userObject, path, durationInSeconds) -> log.debug("avatarOriented-> path: {}, duration: {}", path, durationInSeconds);
-        messengerPlayPortalSE = userObject -> log.debug("playPortalSE->()");
-        messengerReservedEffect = (userObject, path) -> log.debug("reservedEffect-> path: {}", path);
+    public synchronized void setDefaultMessengers() {
+        this.messengers = MessengerRegistry.logging();
+    }
+
+    /**
+     * The messengers currently in use. Read it once and keep the reference if you're sending more than one message.
+     */
+    public MessengerRegistry getMessengers() {
+        return messengers;
+    }
+
+    /**
+     * Swaps every messenger at once, like on a reload.
+     */
+    public synchronized void setMessengers(MessengerRegistry messengers) {
+        this.messengers = Objects.requireNonNull(messengers);
     }
 
     // =================================================================================================================
 
-    public void setMessengerAskAccept(AskAcceptMessenger messengerAskAccept) {
-        this.messengerAskAccept = messengerAskAccept;
+    public synchronized void setMessengerAskAccept(AskAcceptMessenger messengerAskAccept) {
+        this.messengers = messengers.toBuilder().askAccept(messengerAskAccept).build();
     }
 
-    public void setMessengerAskAvatar(AskAvatarMessenger messengerAskAvatar) {
-        this.messengerAskAvatar = messengerAskAvatar;
+    public synchronized void setMessengerAskAvatar(AskAvatarMessenger messengerAskAvatar) {
+        this.messengers = messengers.toBuilder().askAvatar(messengerAskAvatar).build();
     }
 
-    public void setMessengerAskBoxText(AskBoxTextMessenger messengerAskBoxText) {
-        this.messengerAskBoxText = messengerAskBoxText;
+    public synchronized void setMessengerAskBoxText(AskBoxTextMessenger messengerAskBoxText) {
+        this.messengers = messengers.toBuilder().askBoxText(messengerAskBoxText).build();
     }
 
-    public void setMessengerAskMemberShopAvatar(AskMemberShopAvatar messengerAskMemberShopAvatar) {
-        this.messengerAskMemberShopAvatar = messengerAskMemberShopAvatar;
+    public synchronized void setMessengerAskMemberShopAvatar(AskMemberShopAvatar messengerAskMemberShopAvatar) {
+        this.messengers = messengers.toBuilder().askMemberShopAvatar(messengerAskMemberShopAvatar).build();
     }
 
-    public void setMessengerAskMenu(AskMenuMessenger messengerAskMenu) {
-        this.messengerAskMenu = messengerAskMenu;
+    public synchronized void setMessengerAskMenu(AskMenuMessenger messengerAskMenu) {
+        this.messengers = messengers.toBuilder().askMenu(messengerAskMenu).build();
     }
 
-    public void setMessengerAskNumber(AskNumberMessenger messengerAskNumber) {
-        this.messengerAskNumber = messengerAskNumber;
+    public synchronized void setMessengerAskNumber(AskNumberMessenger messengerAskNumber) {
+        this.messengers = messengers.toBuilder().askNumber(messengerAskNumber).build();
     }
 
-    public void setMessengerAskQuiz(AskQuizMessenger messengerAskQuiz) {
-        this.messengerAskQuiz = messengerAskQuiz;
+    public synchronized void setMessengerAskQuiz(AskQuizMessenger messengerAskQuiz) {
+        this.messengers = messengers.toBuilder().askQuiz(messengerAskQuiz).build();
     }
 
-    public void setMessengerAskSlideMenu(AskSlideMenuMessenger messengerAskSlideMenu) {
-        this.messengerAskSlideMenu = messengerAskSlideMenu;
+    public synchronized void setMessengerAskSlideMenu(AskSlideMenuMessenger messengerAskSlideMenu) {
+        this.messengers = messengers.toBuilder().askSlideMenu(messengerAskSlideMenu).build();
     }
 
-    public void setMessengerAskSpeedQuiz(AskSpeedQuizMessenger messengerAskSpeedQuiz) {
-        this.messengerAskSpeedQuiz = messengerAskSpeedQuiz;
+    public synchronized void setMessengerAskSpeedQuiz(AskSpeedQuizMessenger messengerAskSpeedQuiz) {
+        this.messengers = messengers.toBuilder().askSpeedQuiz(messengerAskSpeedQuiz).build();
     }
 
-    public void setMessengerAskText(AskTextMessenger messengerAskText) {
-        this.messengerAskText = messengerAskText;
+    public synchronized void setMessengerAskText(AskTextMessenger messengerAskText) {
+        this.messengers = messengers.toBuilder().askText(messengerAskText).build();
     }
 
-    public void setMessengerAskYesNo(AskYesNoMessenger messengerAskYesNo) {
-        this.messengerAskYesNo = messengerAskYesNo;
+    public synchronized void setMessengerAskYesNo(AskYesNoMessenger messengerAskYesNo) {
+        this.messengers = messengers.toBuilder().askYesNo(messengerAskYesNo).build();
     }
 
-    public void setMessengerSayImage(SayImageMessenger messengerSayImage) {
-        this.messengerSayImage = messengerSayImage;
+    public synchronized void setMessengerSayImage(SayImageMessenger messengerSayImage) {
+        this.messengers = messengers.toBuilder().sayImage(messengerSayImage).build();
     }
 
-    public void setMessengerSay(SayMessenger messengerSay) {
-        this.messengerSay = messengerSay;
+    public synchronized void setMessengerSay(SayMessenger messengerSay) {
+        this.messengers = messengers.toBuilder().say(messengerSay).build();
     }
 
     // =================================================================================================================
 
-    public void setMessengerMessage(MessageMessenger messengerMessage) {
-        this.messengerMessage = messengerMessage;
+    public synchronized void setMessengerMessage(MessageMessenger messengerMessage) {
+        this.messengers = messengers.toBuilder().message(messengerMessage).build();
     }
 
-    public void setMessengerBalloon(BalloonMessenger messengerBalloon) {
-        this.messengerBalloon = messengerBalloon;
+    public synchronized void setMessengerBalloon(BalloonMessenger messengerBalloon) {
+        this.messengers = messengers.toBuilder().balloon(messengerBalloon).build();
     }
 
-    public void setMessengerProgress(ProgressMessenger messengerProgress) {
-        this.messengerProgress = messengerProgress;
+    public synchronized void setMessengerProgress(ProgressMessenger messengerProgress) {
+        this.messengers = messengers.toBuilder().progress(messengerProgress).build();
     }
 
-    public void setMessengerStatChanged(StatChangedMessenger messengerStatChanged) {
-        this.messengerStatChanged = messengerStatChanged;
+    public synchronized void setMessengerStatChanged(StatChangedMessenger messengerStatChanged) {
+        this.messengers = messengers.toBuilder().statChanged(messengerStatChanged).build();
     }
 
     // =================================================================================================================
 
 
-    public void setMessengerFieldObject(FieldObjectMessenger messengerFieldObject) {
-        this.messengerFieldObject = messengerFieldObject;
+    public synchronized void setMessengerFieldObject(FieldObjectMessenger messengerFieldObject) {
+        this.messengers = messengers.toBuilder().fieldObject(messengerFieldObject).build();
     }
 
-    public void setMessengerFieldScreen(FieldScreenMessenger messengerFieldScreen) {
-        this.messengerFieldScreen = messengerFieldScreen;
+    public synchronized void setMessengerFieldScreen(FieldScreenMessenger messengerFieldScreen) {
+        this.messengers = messengers.toBuilder().fieldScreen(messengerFieldScreen).build();
     }
 
-    public void setMessengerFieldSound(FieldSoundMessenger messengerFieldSound) {
-        this.messengerFieldSound = messengerFieldSound;
+    public synchronized void setMessengerFieldSound(FieldSoundMessenger messengerFieldSound) {
+        this.messengers = messengers.toBuilder().fieldSound(messengerFieldSound).build();
     }
 
-    public void setMessengerFieldTremble(FieldTrembleMessenger messengerFieldTremble) {
-        this.messengerFieldTremble = messengerFieldTremble;
+    public synchronized void setMessengerFieldTremble(FieldTrembleMessenger messengerFieldTremble) {
+        this.messengers = messengers.toBuilder().fieldTremble(messengerFieldTremble).build();
     }
 
     // =================================================================================================================
 
-    public void setMessengerAvatarOriented(AvatarOrientedMessenger messengerAvatarOriented) {
-        this.messengerAvatarOriented = messengerAvatarOriented;
+    public synchronized void setMessengerAvatarOriented(AvatarOrientedMessenger messengerAvatarOriented) {
+        this.messengers = messengers.toBuilder().avatarOriented(messengerAvatarOriented).build();
     }
 
-    public void setMessengerPlayPortalSE(PlayPortalSEMessenger messengerPlayPortalSE) {
-        this.messengerPlayPortalSE = messengerPlayPortalSE;
+    public synchronized void setMessengerPlayPortalSE(PlayPortalSEMessenger messengerPlayPortalSE) {
+        this.messengers = messengers.toBuilder().playPortalSE(messengerPlayPortalSE).build();
     }
 
-    public void setMessengerReservedEffect(ReservedEffectMessenger messengerReservedEffect) {
-        this.messengerReservedEffect = messengerReservedEffect;
+    public synchronized void setMessengerReservedEffect(ReservedEffectMessenger messengerReservedEffect) {
+        this.messengers = messengers.toBuilder().reservedEffect(messengerReservedEffect).build();
     }
 
     private static void onScriptMessage(MoeScript script, Consumer<UserObject> sendMessage) {
         script.setScriptResponse(null);
         script.setScriptAction(null);
-        script.getUserObject().ifPresentOrElse(sendMessage, () -> log.debug("User object isn't set, workflow is messy."));
+        script.getUserObject().ifPresentOrElse(sendMessage, () -> Trace.debug(log, "User object isn't set, workflow is messy."));
     }
 
     /**
@@ -304,7 +249,7 @@ public enum ScriptAPI {
      * @param message
      */
     public static void message(MoeScript script, int type, String message) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerMessage.send(user, type, message));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getMessage().send(user, type, message));
     }
 
     /**
@@ -315,7 +260,7 @@ public enum ScriptAPI {
      * @param message
      */
     public static void balloon(MoeScript script, int width, int timeoutInSeconds, String message) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerBalloon.send(user, message, width, timeoutInSeconds));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getBalloon().send(user, message, width, timeoutInSeconds));
     }
 
     /**
@@ -324,56 +269,54 @@ public enum ScriptAPI {
      * @param message
      */
     public static void progress(MoeScript script, String message) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerProgress.send(user, message));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getProgress().send(user, message));
     }
 
     public static void statChanged(MoeScript script, boolean exclRequest) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerStatChanged.send(user, exclRequest));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getStatChanged().send(user, exclRequest));
     }
 
     // =================================================================================================================
 
     public static void fieldEffectScreen(MoeScript script, String path) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerFieldScreen.send(user, path));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getFieldScreen().send(user, path));
     }
 
     public static void fieldEffectSound(MoeScript script, String path) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerFieldScreen.send(user, path));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getFieldScreen().send(user, path));
     }
 
     public static void fieldEffectTremble(MoeScript script, int type, int delay) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerFieldTremble.send(user, type, delay));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getFieldTremble().send(user, type, delay));
     }
 
     // =================================================================================================================
 
     public static void userAvatarOriented(MoeScript script, String path, int durationInSeconds) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerAvatarOriented.send(user, path, durationInSeconds));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getAvatarOriented().send(user, path, durationInSeconds));
     }
 
     public static void userPlayPortalSE(MoeScript script) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerPlayPortalSE.send(user));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getPlayPortalSE().send(user));
     }
 
     public static void userReservedEffect(MoeScript script, String path) {
-        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengerReservedEffect.send(user, path));
+        onScriptMessage(script, user->ScriptAPI.INSTANCE.messengers.getReservedEffect().send(user, path));
     }
 
     public static BasicActionChain say(MoeScript script, Collection<SayMessage> saying) {
         script.setScriptAction(null);
         script.setScriptResponse(null);
-        var chain = new SayResponse[saying.size()];
-        With.index(saying, (msg, idx) -> chain[idx] = (new SayResponse(chain, ScriptAPI.INSTANCE.messengerSay, script, idx, msg)));
-        chain[0].onResponse(chain[0]);
+        new SayResponse(ScriptAPI.INSTANCE.messengers.getSay(), script, List.copyOf(saying)).show(0);
         return script::setScriptAction;
     }
 
     public static BasicActionChain say(MoeScript script, Integer[] speakers, List<Tuple<Integer, String>> paramAndMessages) {
         script.setScriptAction(null);
         script.setScriptResponse(null);
-        var chain = new SayResponse[paramAndMessages.size()];
-        With.indexAndCount(paramAndMessages, (msg, idx, ts) -> chain[idx] = (new SayResponse(chain, ScriptAPI.INSTANCE.messengerSay, script, idx, new SayMessage(0, speakers[idx], 0, paramAndMessages.get(idx).left(), paramAndMessages.get(idx).right()))));
-        chain[0].onResponse(chain[0]);
+        var pages = new SayMessage[paramAndMessages.size()];
+        With.index(paramAndMessages, (msg, idx) -> pages[idx] = new SayMessage(0, speakers[idx], 0, msg.left(), msg.right()));
+        new SayResponse(ScriptAPI.INSTANCE.messengers.getSay(), script, List.of(pages)).show(0);
         return script::setScriptAction;
     }
 
@@ -415,34 +358,27 @@ public enum ScriptAPI {
         return say(script, 0, List.of(Moematter.format(message, objects)));
     }
 
+    /**
+     * Says a shared dialog's pages, see {@link DialogDefinition}. The menu, if there is one, isn't asked.
+     */
+    public static BasicActionChain say(MoeScript script, DialogDefinition dialog) {
+        if (!dialog.hasPages())
+            throw new IllegalArgumentException("Dialog has no pages: " + dialog);
+        script.setScriptAction(null);
+        script.setScriptResponse(null);
+        new SayResponse(ScriptAPI.INSTANCE.messengers.getSay(), script, dialog.getPages()).show(0);
+        return script::setScriptAction;
+    }
+
     // =================================================================================================================
 
     public static void askYesNo(MoeScript script, String message, BasicScriptAction onYes, BasicScriptAction onNo) {
         script.setScriptAction(null);
-        script.setScriptResponse((t, a, o) -> {
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKYESNO);
-            if (t.intValue() != real) {
-                log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                script.end();
-            } else {
-                var an = a.intValue();
-                if (an == 1 || an == 0) {
-                    var act = an == 0 ? onNo : onYes;
-                    script.setScriptResponse(null);
-                    script.setScriptAction(act);
-                    script.resume(t, a, o);
-                } else if (an == -1) {
-                    script.escape();
-                } else {
-                    log.debug("Answer was invalid, ending: {}", an);
-                    script.end();
-                }
-            }
-        });
+        script.setScriptResponse(new AskYesNoResponse(script, ScriptMessageType.ASKYESNO, onYes, onNo));
         var speaker = script.getSpeakerTemplateId();
 
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskYesNo.send(obj, speaker, 0,  message),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengers.getAskYesNo().send(obj, speaker, 0,  message),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
     }
 
     public static void askYesNo(MoeScript script, String message, BasicScriptAction onYes) {
@@ -453,30 +389,11 @@ public enum ScriptAPI {
 
     public static void askAccept(MoeScript script, String message, BasicScriptAction onYes, BasicScriptAction onNo) {
         script.setScriptAction(null);
-        script.setScriptResponse((t, a, o) -> {
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKACCEPT);
-            if (t.intValue() != real) {
-                log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                script.end();
-            } else {
-                var an = a.intValue();
-                if (an == 1 || an == 0) {
-                    var act = an == 0 ? onNo : onYes;
-                    script.setScriptResponse(null);
-                    script.setScriptAction(act);
-                    script.resume(t, a, o);
-                } else if (an == -1) {
-                    script.escape();
-                } else {
-                    log.debug("Answer was invalid, ending: {}", an);
-                    script.end();
-                }
-            }
-        });
+        script.setScriptResponse(new AskYesNoResponse(script, ScriptMessageType.ASKACCEPT, onYes, onNo));
         var speaker = script.getSpeakerTemplateId();
 
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskAccept.send(obj, speaker, 0, message),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengers.getAskAccept().send(obj, speaker, 0, message),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
     }
 
     public static void askAccept(MoeScript script, String message, BasicScriptAction onYes) {
@@ -485,43 +402,27 @@ public enum ScriptAPI {
 
     // =================================================================================================================
 
-    private static ScriptResponse askMenuResponse(MoeScript script, Set<Integer> options) {
-        return (t, a, o) -> {
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKMENU);
-            if (t.intValue() != real || a.intValue() != 1) {
-                if (t.intValue() != real)
-                    log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                else if (a.intValue() == 0)
-                    log.debug("Answer escaped, escaping: {}", a.intValue());
-                else
-                    log.warn("Answer wasn't valid, ending: {}", a.intValue());
-                script.escape(); // todo, ask menu is always an escape?
-            } else {
-                var sel = ((Integer)o);
-                var bad = sel == null || !options.contains(sel);
-                if (bad) {
-                    log.debug("Value mismatch: val {} options {}", sel, options);
-                    script.end();
-                } else {
-                    script.setScriptResponse(null);
-                    script.resume(t, a, o);
-                }
-            }
-        };
-    }
-
     public static IntegerActionChain askMenu(MoeScript script, int speakerTemplateId, int param, String prompt, Collection<String> menuItems) {
-        var builder = new ScriptMenuBuilder<>();
-        builder.append(prompt).newLine().blue().appendMenu(menuItems);
-        var built = builder.toString();
-
-        script.setScriptAction(null);
-
-        var options = ScriptMenuBuilder.matchIndices(built).stream().map(ScriptMenuBuilder::parseMenuIndex).collect(Collectors.toSet());
-        script.setScriptResponse(askMenuResponse(script, options));
-
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskMenu.send(obj, speakerTemplateId, param, built),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        var builder = ScriptStringBuilder.acquire();
+        try {
+            builder.append(prompt).newLine().blue().appendMenu(menuItems);
+            var options = builder.getMenuIndices();
+            options.addAll(MenuMarkup.scan(prompt).indices());
+
+            script.setScriptAction(null);
+            script.setScriptResponse(new AskMenuResponse(script, options));
+
+            var user = script.getUserObject();
+            var messenger = ScriptAPI.INSTANCE.messengers.getAskMenu();
+            if (user.isEmpty())
+                Trace.debug(log, "User object isn't set, workflow is messy.");
+            else if (messenger instanceof EncodedAskMenuMessenger)
+                ((EncodedAskMenuMessenger) messenger).send(user.get(), 0, speakerTemplateId, param, builder.buildEncoded());
+            else
+                messenger.send(user.get(), speakerTemplateId, param, builder.build());
+        } finally {
+            builder.release();
+        }
 
         return script::setScriptAction;
     }
@@ -536,80 +437,119 @@ public enum ScriptAPI {
 
     public static IntegerActionChain askMenu(MoeScript script, String prompt) {
         script.setScriptAction(null);
-        var options = ScriptMenuBuilder.matchIndices(prompt).stream().map(ScriptMenuBuilder::parseMenuIndex).collect(Collectors.toSet());
-        script.setScriptResponse(askMenuResponse(script, options));//prompt.length() - prompt.replace("#L", "").length() - 1
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskMenu.send(obj, script.getSpeakerTemplateId(), 0, prompt),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.setScriptResponse(new AskMenuResponse(script, MenuMarkup.scan(prompt).indices()));
+        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengers.getAskMenu().send(obj, script.getSpeakerTemplateId(), 0, prompt),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
         return script::setScriptAction;
     }
 
+    /**
+     * A one-off menu, nothing is kept once it's answered. Menus shown to many users should be a {@link ScriptMenu}.
+     */
     public static void askMenu(MoeScript script, String prompt, List<MenuItem> items) {
         script.setScriptAction(null);
+        script.setScriptResponse(AskMenuItemResponse.menu(script, items));
 
-        var ssb = new ScriptStringBuilder().append(prompt).blue().newLine();
-        var actionMap = new HashMap<Integer, BasicScriptAction>();
-        for (var i = 0; i < items.size(); i++) {
-            var item = items.get(i);
-            actionMap.put(i, item.action());
-            ssb.appendMenuItemLine(i, item.message());
+        var user = script.getUserObject();
+        if (user.isEmpty()) {
+            Trace.debug(log, "User object isn't set, workflow is messy.");
+            return;
         }
-        var options = IntStream.range(0, items.size()).boxed().collect(Collectors.toUnmodifiableSet());
-        script.setScriptResponse((t, a, o) -> {
-            var sel = ((Integer)o);
-            var bad = sel == null || !options.contains(sel);
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKMENU);
-            if (t.intValue() != real || bad || a.intValue() != 1) {
-                if (bad)
-                    log.debug("Value mismatch: val {} keys {}", sel, options);
-                else if (t.intValue() != real)
-                    log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                else
-                    log.debug("Answer is invalid: {}", a);
-                if (a.intValue() == -1)
-                    script.escape();
-                else
-                    script.end();
-            } else {
-                script.setScriptResponse(null);
-                script.setScriptAction(actionMap.get(sel));
-                script.resume(t, a, o);
-            }
-        });
+        var builder = ScriptStringBuilder.acquire();
+        try {
+            builder.append(prompt).blue().newLine();
+            for (var i = 0; i < items.size(); i++)
+                builder.appendMenuItemLine(i, items.get(i).message());
+            var messenger = ScriptAPI.INSTANCE.messengers.getAskMenu();
+            if (messenger instanceof EncodedAskMenuMessenger)
+                ((EncodedAskMenuMessenger) messenger).send(user.get(), 0, script.getSpeakerTemplateId(), 0, builder.buildEncoded());
+            else
+                messenger.send(user.get(), script.getSpeakerTemplateId(), 0, builder.build());
+        } finally {
+            builder.release();
+        }
+    }
+
+    /**
+     * Shows a prebuilt menu, see {@link ScriptMenu}. Also handles slide menus.
+     */
+    public static void askMenu(MoeScript script, ScriptMenu menu) {
+        script.setScriptAction(null);
+        script.setScriptResponse(new AskMenuActionResponse(script, menu));
 
         var speaker = script.getSpeakerTemplateId();
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskMenu.send(obj, speaker, 0, ssb.toString()),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.getUserObject().ifPresentOrElse(obj -> {
+            if (menu.getMessageType() == ScriptMessageType.ASKSLIDEMENU)
+                ScriptAPI.INSTANCE.messengers.getAskSlideMenu().send(obj, speaker, false, 0, menu.getText());
+            else
+                ScriptAPI.INSTANCE.messengers.getAskMenu().send(obj, speaker, 0, menu.getText());
+        }, () -> Trace.debug(log, "User object isn't set, workflow is messy."));
     }
 
-    // =================================================================================================================
+    /**
+     * Says a shared dialog's pages and then asks its menu, see {@link DialogDefinition}.
+     * The menu is asked after the last page even if nothing is chained with andThen.
+     */
+    public static IntegerActionChain askMenu(MoeScript script, DialogDefinition dialog) {
+        if (!dialog.hasMenu())
+            throw new IllegalArgumentException("Dialog has no menu: " + dialog);
+        if (!dialog.hasPages())
+            return askMenuOf(script, dialog);
+        say(script, dialog);
+        var menu = new DialogMenuAction(script, dialog);
+        script.setScriptAction(menu); // Asked after the last page, whether or not there's an andThen.
+        return menu;
+    }
+
+    private static IntegerActionChain askMenuOf(MoeScript script, DialogDefinition dialog) {
+        script.setScriptAction(null);
+        script.setScriptResponse(new AskMenuResponse(script, dialog.getMenuOptions()));
+        var user = script.getUserObject();
+        var messenger = ScriptAPI.INSTANCE.messengers.getAskMenu();
+        if (user.isEmpty())
+            Trace.debug(log, "User object isn't set, workflow is messy.");
+        else if (messenger instanceof EncodedAskMenuMessenger)
+            ((EncodedAskMenuMessenger) messenger).send(user.get(), 0, dialog.getSpeakerTemplateId(), 0, dialog.getEncodedMenu());
+        else
+            messenger.send(user.get(), dialog.getSpeakerTemplateId(), 0, dialog.getMenuText());
+        return script::setScriptAction;
+    }
 
-    private static ScriptResponse askAvatarResponse(MoeScript script, int[] options) {
-        return (t, a, o) -> {
-            var sel = ((Number)o); // Response is a byte for most versions
-            var bad = sel == null || (options.length <= sel.intValue() || 0 > sel.intValue());
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKAVATAR);
-
-            if (t.intValue() != real || bad || a.intValue() != 1) {
-                if (bad)
-                    log.debug("Value mismatch: val {}, options {}", sel, options);
-                else if (t.intValue() != real)
-                    log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                else
-                    log.debug("Answer is invalid: {}", a);
-                script.escape(); //askAvatar is always an escape
-            } else {
-                script.setScriptResponse(null);
-                script.resume(t, a, o);
-            }
-        };
+    /**
+     * Asks a dialog's menu once its pages are done. The answer's action is whatever andThen was given, if anything.
+     */
+    private static final class DialogMenuAction implements BasicScriptAction, IntegerActionChain {
+
+        private final MoeScript script;
+        private final DialogDefinition dialog;
+        private IntegerScriptAction next;
+
+        private DialogMenuAction(MoeScript script, DialogDefinition dialog) {
+            this.script = script;
+            this.dialog = dialog;
+        }
+
+        @Override
+        public void act() {
+            askMenuOf(script, dialog);
+            if (next != null)
+                script.setScriptAction(next);
+        }
+
+        @Override
+        public void andThen(IntegerScriptAction next) {
+            this.next = next;
+        }
     }
 
+    // =================================================================================================================
+
     public static IntegerActionChain askAvatar(MoeScript script, int speakerTemplateId, int param, String prompt, Collection<Integer> options) {
         script.setScriptAction(null);
         int[] optionArray = options.stream().mapToInt(Integer::intValue).toArray(); // :|
-        script.setScriptResponse(askAvatarResponse(script, optionArray));
-        script.getUserObject().ifPresentOrElse(obj ->ScriptAPI.INSTANCE.messengerAskAvatar.send(obj, speakerTemplateId, param, prompt, optionArray),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.setScriptResponse(new AskAvatarResponse(script, optionArray.length));
+        script.getUserObject().ifPresentOrElse(obj ->ScriptAPI.INSTANCE.messengers.getAskAvatar().send(obj, speakerTemplateId, param, prompt, optionArray),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
 
         return script::setScriptAction;
     }
@@ -624,36 +564,12 @@ public enum ScriptAPI {
 
     // =================================================================================================================
 
-    private static ScriptResponse askTextResponse(MoeScript script, int min, int max) {
-        return (t, a, o) -> {
-            var sel = ((String)o);
-            var bad = sel == null || sel.length() < min || sel.length() > max;
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKTEXT);
-
-            if (t.intValue() != real || bad || a.intValue() != 1) {
-                if (bad)
-                    log.debug("Value mismatch: min {}, max {}, val {}", min, max, sel);
-                else if (t.intValue() != real)
-                    log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                else
-                    log.debug("Answer is invalid: {}", a);
-                if (a.intValue() == -1)
-                    script.escape();
-                else
-                    script.end();
-            } else {
-                script.setScriptResponse(null);
-                script.resume(t, a, o);
-            }
-        };
-    }
-
     public static StringActionChain askText(MoeScript script, int speakerTemplateId, int param, String message, String defaultText, int min, int max) {
         script.setScriptAction(null);
-        script.setScriptResponse(askTextResponse(script, min, max));
+        script.setScriptResponse(new AskTextResponse(script, min, max));
 
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskText.send(obj, speakerTemplateId, param, message, defaultText, min, max),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengers.getAskText().send(obj, speakerTemplateId, param, message, defaultText, min, max),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
         return script::setScriptAction;
     }
 
@@ -689,62 +605,20 @@ public enum ScriptAPI {
 
     public static StringActionChain askSpeedQuiz(MoeScript script, int speakerTemplateId, int param, int type, int answer, int correct, int remaining, int remainInitialQuiz, String title, String problemText, String hintText, int min, int max) {
         script.setScriptAction(null);
-        if (param == 0) script.setScriptResponse(askSpeedQuizResponse(script, answer)); //param 1 = force close the window
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskSpeedQuiz.send(obj, speakerTemplateId, param, type, answer, correct, remaining, remainInitialQuiz, title, problemText, hintText, (short)min, (short)max),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        if (param == 0) script.setScriptResponse(new AskSpeedQuizResponse(script)); //param 1 = force close the window
+        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengers.getAskSpeedQuiz().send(obj, speakerTemplateId, param, type, answer, correct, remaining, remainInitialQuiz, title, problemText, hintText, (short)min, (short)max),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
         return script::setScriptAction;
     }
 
-    private static ScriptResponse askSpeedQuizResponse(MoeScript script, int answer) {
-        return (t, a, o) -> {
-            var response = (String)o; //client sends strings instead of actions. GIVE UP button -> "__GIVEUP__", NEXT button -> "", OK button (or enter) -> answer
-            var bad = response == null; //your askSpeedQuiz packet handler should only decode type and object (string). action is not used at all in speedQuiz
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKSPEEDQUIZ);
-
-            if (t.intValue() != real || bad) {
-                if (bad) log.debug("Null string response for askSpeedQuiz.");
-                else log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-            } else if (response.equals("__GIVEUP__")) { //thanks Nexon
-                script.escape();
-            } else {
-                script.setScriptResponse(null);
-                script.resume(t, a, o);
-            }
-        };
-    }
-
     // =================================================================================================================
 
-    private static ScriptResponse askNumberResponse(MoeScript script, int min, int max) {
-        return (t, a, o) -> {
-            var sel = ((Integer)o);
-            var bad = sel == null || sel < min || sel > max;
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKNUMBER);
-
-            if (t.intValue() != real || bad || a.intValue() != 1) {
-                if (bad)
-                    log.debug("Value mismatch: min {}, max {}, val {}", min, max, sel);
-                else if (t.intValue() != real)
-                    log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                else
-                    log.debug("Answer is invalid: {}", a.intValue());
-                if (a.intValue() == -1)
-                    script.escape();
-                else
-                    script.end();
-            } else {
-                script.setScriptResponse(null);
-                script.resume(t, a, o);
-            }
-        };
-    }
-
     public static IntegerActionChain askNumber(MoeScript script, int speakerTemplateId, int param, String message, int defaultNumber, int min, int max) {
         script.setScriptAction(null);
-        script.setScriptResponse(askNumberResponse(script, min, max));
+        script.setScriptResponse(new AskNumberResponse(script, min, max));
 
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskNumber.send(obj, speakerTemplateId, param, message, defaultNumber, min, max),
-                () -> log.debug("User object isn't set, workflow is messy."));
+        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengers.getAskNumber().send(obj, speakerTemplateId, param, message, defaultNumber, min, max),
+                () -> Trace.debug(log, "User object isn't set, workflow is messy."));
 
         return script::setScriptAction;
     }
@@ -771,41 +645,28 @@ public enum ScriptAPI {
 
     // =================================================================================================================
 
+    /**
+     * A one-off slide menu, see {@link #askMenu(MoeScript, String, List)}.
+     */
     public static void askSlideMenu(MoeScript script, List<SlideItem> items) {
         script.setScriptAction(null);
+        script.setScriptResponse(AskMenuItemResponse.slide(script, items));
 
-        var ssb = new ScriptStringBuilder();
-        var actionMap = new HashMap<Integer, BasicScriptAction>();
-        for (var i : items) {
-            actionMap.put(i.index(), i.action());
-            ssb.appendf("#{}# {}", i.index(), i.message());
+        var user = script.getUserObject();
+        if (user.isEmpty()) {
+            Trace.debug(log, "User object isn't set, workflow is messy.");
+            return;
         }
-        var options = items.stream().map(SlideItem::index).collect(Collectors.toUnmodifiableSet());
-        script.setScriptResponse((t, a, o) -> {
-            var sel = ((Integer)o);
-            var bad = sel == null || !options.contains(sel);
-            var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.ASKSLIDEMENU);
-            if (t.intValue() != real || bad || a.intValue() != 1) {
-                if (bad)
-                    log.debug("Value mismatch: val {} keys {}", sel, options);
-                else if (t.intValue() != real)
-                    log.warn("ScriptMessageType mismatch: {} vs {}", t.intValue(), real);
-                else
-                    log.debug("Answer is invalid: {}", a);
-                if (a.intValue() == -1)
-                    script.escape();
-                else
-                    script.end();
-            } else {
-                script.setScriptResponse(null);
-                script.setScriptAction(actionMap.get(sel));
-                script.resume(t, a, o);
+        var builder = ScriptStringBuilder.acquire();
+        try {
+            for (var i = 0; i < items.size(); i++) {
+                var item = items.get(i);
+                builder.appendf("#{}# {}", item.index(), item.message());
             }
-        });
-
-        var speaker = script.getSpeakerTemplateId();
-        script.getUserObject().ifPresentOrElse(obj -> ScriptAPI.INSTANCE.messengerAskSlideMenu.send(obj, speaker, false, 0, ssb.toString()),
-                () -> log.debug("User object isn't set, workflow is messy."));
+            ScriptAPI.INSTANCE.messengers.getAskSlideMenu().send(user.get(), script.getSpeakerTemplateId(), false, 0, builder.build());
+        } finally {
+            builder.release();
+        }
     }
 
     public static void askSlideMenu(MoeScript script, SlideItem... items) {
@@ -25,4 +25,13 @@ package moe.maple.api.script.logic.action;
 @FunctionalInterface
 public interface BasicScriptAction extends ScriptAction {
     void act();
+
+    @Override
+    default void invoke(Object response) { act(); }
+
+    @Override
+    default void invokeInt(int response) { act(); }
+
+    @Override
+    default void invokeText(String response) { act(); }
 }
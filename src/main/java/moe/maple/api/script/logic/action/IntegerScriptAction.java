@@ -25,4 +25,21 @@ package moe.maple.api.script.logic.action;
 @FunctionalInterface
 public interface IntegerScriptAction extends ScriptAction {
     void act(Integer object);
+
+    /**
+     * What {@link #invokeInt(int)} calls, the default boxes and calls {@link #act(Integer)}.
+     * Small values come from Integer's cache, override this for an action that never boxes.
+     */
+    default void actInt(int value) { act(value); }
+
+    @Override
+    default void invoke(Object response) { actInt(((Number) response).intValue()); }
+
+    @Override
+    default void invokeInt(int response) { actInt(response); }
+
+    @Override
+    default void invokeText(String response) {
+        throw new IllegalArgumentException("Expected a number reply, got text: " + response);
+    }
 }
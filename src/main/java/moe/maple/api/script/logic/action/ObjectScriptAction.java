@@ -25,4 +25,16 @@ package moe.maple.api.script.logic.action;
 @FunctionalInterface
 public interface ObjectScriptAction<T> extends ScriptAction {
     void act(T object);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    default void invoke(Object response) { act((T) response); }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    default void invokeInt(int response) { act((T) Integer.valueOf(response)); }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    default void invokeText(String response) { act((T) response); }
 }
\ No newline at end of file
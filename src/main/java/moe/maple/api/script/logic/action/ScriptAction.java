@@ -23,5 +23,24 @@
 package moe.maple.api.script.logic.action;
 
 public interface ScriptAction {
-    //void act();
+
+    /**
+     * Runs the action with the client's reply. Each kind of action implements these once,
+     * so resuming a script is a single call no matter what kind of action is waiting.
+     * The default throws, actions written before these existed can't take a reply.
+     * @param response - The reply from {@link moe.maple.api.script.model.MoeScript#resume(Number, Number, Object)}
+     */
+    default void invoke(Object response) {
+        throw new UnsupportedOperationException("Couldn't process action: " + getClass().getName());
+    }
+
+    /**
+     * See {@link moe.maple.api.script.model.MoeScript#resumeInt(int, int, int)}, the default boxes and calls {@link #invoke(Object)}.
+     */
+    default void invokeInt(int response) { invoke(response); }
+
+    /**
+     * See {@link moe.maple.api.script.model.MoeScript#resumeText(int, int, String)}, the default calls {@link #invoke(Object)}.
+     */
+    default void invokeText(String response) { invoke(response); }
 }
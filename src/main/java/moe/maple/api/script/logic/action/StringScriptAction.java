@@ -25,4 +25,15 @@ package moe.maple.api.script.logic.action;
 @FunctionalInterface
 public interface StringScriptAction extends ScriptAction {
     void act(String object);
+
+    @Override
+    default void invoke(Object response) { act((String) response); }
+
+    @Override
+    default void invokeInt(int response) {
+        throw new IllegalArgumentException("Expected a text reply, got a number: " + response);
+    }
+
+    @Override
+    default void invokeText(String response) { act(response); }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.event;
+
+import moe.maple.api.script.model.MoeScript;
+
+import java.util.Arrays;
+
+/**
+ * The events for one script phase, kept in a plain array with a count.
+ * A single-use event leaves a hole when it fires, and the holes are compacted out once the pass is over,
+ * so a pass is O(n) no matter how many are removed and the remaining events keep the order they were added in.
+ *
+ * Events may add to the list they're running from, those are kept for the next pass.
+ * If an event clears the list or runs it again, the outer pass stops where it is. The array is never
+ * half compacted while an event runs, so a nested pass sees every event exactly once.
+ */
+public final class ScriptEventList {
+
+    private static final ScriptEvent[] EMPTY = new ScriptEvent[0];
+
+    private ScriptEvent[] events;
+    private int count;
+    private int holes;
+    private int epoch;
+
+    public ScriptEventList() {
+        this.events = EMPTY;
+    }
+
+    public void add(ScriptEvent event) {
+        if (count == events.length)
+            events = Arrays.copyOf(events, Math.max(4, count * 2));
+        events[count++] = event;
+    }
+
+    /**
+     * Fires every event added before this call, in order, then drops the single-use ones.
+     */
+    public void run(MoeScript script) {
+        var n = count;
+        if (n == 0)
+            return;
+        var current = ++epoch;
+        for (var i = 0; i < n; i++) {
+            var event = events[i];
+            if (event == null)
+                continue;
+            // Taken out before it fires, a nested pass mustn't fire it again.
+            if (event.isSingleUse()) {
+                events[i] = null;
+                holes++;
+            }
+            event.act(script);
+            // The nested pass, or clear, already left the array compacted.
+            if (epoch != current)
+                return;
+        }
+        compact();
+    }
+
+    private void compact() {
+        if (holes == 0)
+            return;
+        var kept = 0;
+        for (var i = 0; i < count; i++) {
+            var event = events[i];
+            if (event != null)
+                events[kept++] = event;
+        }
+        Arrays.fill(events, kept, count, null);
+        count = kept;
+        holes = 0;
+    }
+
+    /**
+     * Keeps the array, it'll most likely be filled again.
+     */
+    public void clear() {
+        Arrays.fill(events, 0, count, null);
+        count = 0;
+        holes = 0;
+        epoch++;
+    }
+
+    public int size() {
+        return count - holes;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.linear;
+
+import moe.maple.api.script.util.ScriptThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs a script body on its own thread, handing control back and forth with the caller
+ * so only one of them is ever running. The body {@link #park()}s when it needs an answer,
+ * which returns control to whoever called {@link #start()} or {@link #resume(Object)}.
+ *
+ * On Java 21 the body runs on a virtual thread, so a parked script costs a small stack and nothing else.
+ * Below that every parked script holds a platform thread. A warning is logged the first time that happens,
+ * and <code>-Dmoe.script.fiber.requireVirtual=true</code> turns it into an error instead.
+ */
+public final class ScriptFiber {
+
+    private static final Logger log = LoggerFactory.getLogger( ScriptFiber.class );
+
+    private static final Object NULL = new Object(), CANCEL = new Object(), PARKED = new Object(), DONE = new Object();
+    private static final int NEW = 0, RUNNING = 1, PARKED_STATE = 2, FINISHED = 3;
+
+    private static final boolean REQUIRE_VIRTUAL = Boolean.getBoolean("moe.script.fiber.requireVirtual");
+    private static final AtomicBoolean warned = new AtomicBoolean();
+
+    private final String name;
+    private final Runnable body;
+    private final SynchronousQueue<Object> toBody = new SynchronousQueue<>();
+    private final SynchronousQueue<Object> toCaller = new SynchronousQueue<>();
+
+    private volatile int state;
+    private volatile boolean cancelled;
+    private Thread thread;
+
+    public ScriptFiber(String name, Runnable body) {
+        this.name = name;
+        this.body = body;
+    }
+
+    /**
+     * @return true if the fiber runs on a virtual thread.
+     */
+    public static boolean isVirtual() {
+        return ScriptThreads.isVirtual();
+    }
+
+    /**
+     * @return true if the current thread is a fiber, or any virtual thread on Java 21.
+     * Thread local pools are skipped on these, see {@link moe.maple.api.script.util.builder.ScriptStringBuilder#acquire()}
+     */
+    public static boolean isFiberThread() {
+        return ScriptThreads.isFiber(Thread.currentThread());
+    }
+
+    private static void checkVirtual() {
+        if (ScriptThreads.isVirtual())
+            return;
+        if (REQUIRE_VIRTUAL)
+            throw new IllegalStateException("Linear scripts need virtual threads (Java 21+), but this is Java " + Runtime.version().feature() + ".");
+        if (warned.compareAndSet(false, true))
+            log.warn("Virtual threads aren't available on Java {}, every paused linear script holds a platform thread. " +
+                    "Run on Java 21 or later if many scripts will be waiting at once.", Runtime.version().feature());
+    }
+
+    // =================================================================================================================
+
+    /**
+     * Starts the body, and returns once it parks or finishes.
+     * @throws RuntimeException anything the body threw
+     */
+    public void start() {
+        if (state != NEW)
+            throw new IllegalStateException("Fiber was already started: " + name);
+        checkVirtual();
+        state = RUNNING;
+        thread = ScriptThreads.start(name, this::run);
+        await();
+    }
+
+    /**
+     * Hands <code>answer</code> to the parked body, and returns once it parks again or finishes.
+     * @throws RuntimeException anything the body threw
+     */
+    public void resume(Object answer) {
+        if (state != PARKED_STATE) {
+            log.warn("Fiber({}) isn't waiting for an answer, ignoring: {}", name, answer);
+            return;
+        }
+        state = RUNNING;
+        put(toBody, answer == null ? NULL : answer);
+        await();
+    }
+
+    /**
+     * Unwinds a parked body with a {@link ScriptCancelledException}, and waits for it to finish.
+     * Called from the body itself, the next {@link #park()} throws instead.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (state != PARKED_STATE || Thread.currentThread() == thread)
+            return;
+        state = RUNNING;
+        put(toBody, CANCEL);
+        try {
+            await();
+        } catch (RuntimeException e) {
+            log.error("Fiber({}) threw an exception while being cancelled.", name, e);
+        }
+        if (state == PARKED_STATE)
+            log.warn("Fiber({}) swallowed its cancellation and is waiting again.", name);
+    }
+
+    /**
+     * Called by the body, waits for the next {@link #resume(Object)}.
+     * @return the answer, which may be null.
+     * @throws ScriptCancelledException if the fiber was cancelled
+     */
+    public Object park() {
+        if (Thread.currentThread() != thread)
+            throw new IllegalStateException("Only the fiber's own thread can park it.");
+        if (cancelled)
+            throw new ScriptCancelledException();
+        state = PARKED_STATE;
+        put(toCaller, PARKED);
+        var answer = take(toBody);
+        if (answer == CANCEL)
+            throw new ScriptCancelledException();
+        return answer == NULL ? null : answer;
+    }
+
+    public boolean isParked() {
+        return state == PARKED_STATE;
+    }
+
+    public boolean isFinished() {
+        return state == FINISHED;
+    }
+
+    // =================================================================================================================
+
+    private void run() {
+        Object result = DONE;
+        try {
+            body.run();
+        } catch (ScriptCancelledException e) {
+            log.debug("Fiber({}) was cancelled.", name);
+        } catch (Throwable t) {
+            result = t;
+        }
+        state = FINISHED;
+        put(toCaller, result);
+    }
+
+    private void await() {
+        var signal = take(toCaller);
+        if (signal == PARKED || signal == DONE)
+            return;
+        var t = (Throwable) signal;
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        throw new IllegalStateException("Script fiber(" + name + ") failed.", t);
+    }
+
+    private static void put(SynchronousQueue<Object> queue, Object value) {
+        try {
+            queue.put(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing off a script.", e);
+        }
+    }
+
+    private static Object take(SynchronousQueue<Object> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing off a script.", e);
+        }
+    }
+}
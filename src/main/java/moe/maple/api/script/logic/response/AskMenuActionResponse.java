@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.response;
+
+import moe.maple.api.script.logic.action.BasicScriptAction;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.helper.ScriptMenu;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A menu where every option has its own action, used by askMenu with menu items and askSlideMenu.
+ * The {@link ScriptMenu} is shared, this only points at it and hands the chosen action this script.
+ */
+public class AskMenuActionResponse extends IntegerResponse implements BasicScriptAction {
+
+    private static final Logger log = LoggerFactory.getLogger( AskMenuActionResponse.class );
+
+    private final ScriptMenu menu;
+    private int selected;
+
+    public AskMenuActionResponse(MoeScript script, ScriptMenu menu) {
+        super(script, menu.getMessageType());
+        this.menu = menu;
+    }
+
+    @Override
+    protected void respond(int type, int action, boolean present, int value) {
+        var bad = !present || !menu.contains(value);
+        var real = expectedType;
+        if (type != real || bad || action != 1) {
+            if (bad)
+                Trace.debug(log, "Value mismatch: val {} keys {}", value, menu.getOptions());
+            else if (type != real)
+                log.warn("ScriptMessageType mismatch: {} vs {}", type, real);
+            else
+                Trace.debug(log, "Answer is invalid: {}", action);
+            if (action == -1)
+                script.escape();
+            else
+                script.end();
+        } else {
+            script.setScriptResponse(null);
+            script.setScriptAction(this);
+            this.selected = value;
+            script.resumeInt(type, action, value);
+        }
+    }
+
+    /**
+     * Runs the selected item's action with the script that answered, the menu itself is shared.
+     */
+    @Override
+    public void act() {
+        var action = menu.getAction(selected);
+        if (action != null)
+            action.act(script);
+    }
+}
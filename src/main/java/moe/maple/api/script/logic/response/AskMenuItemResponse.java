@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.response;
+
+import moe.maple.api.script.logic.action.BasicScriptAction;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.helper.MenuItem;
+import moe.maple.api.script.model.helper.SlideItem;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * A one-off menu from a list of {@link MenuItem}s or {@link SlideItem}s, the action is looked up in the list itself.
+ * Nothing is built per item, menus that are shown often should be a {@link moe.maple.api.script.model.helper.ScriptMenu} instead.
+ * The list shouldn't change while the script is waiting on it.
+ */
+public class AskMenuItemResponse extends IntegerResponse {
+
+    private static final Logger log = LoggerFactory.getLogger( AskMenuItemResponse.class );
+
+    private final List<MenuItem> items;
+    private final List<SlideItem> slides;
+
+    private AskMenuItemResponse(MoeScript script, int messageType, List<MenuItem> items, List<SlideItem> slides) {
+        super(script, messageType);
+        this.items = items;
+        this.slides = slides;
+    }
+
+    /**
+     * An askMenu, items are numbered from 0 in the order given.
+     */
+    public static AskMenuItemResponse menu(MoeScript script, List<MenuItem> items) {
+        return new AskMenuItemResponse(script, ScriptMessageType.ASKMENU, items, null);
+    }
+
+    /**
+     * An askSlideMenu, items keep their own {@link SlideItem#index()}.
+     */
+    public static AskMenuItemResponse slide(MoeScript script, List<SlideItem> items) {
+        return new AskMenuItemResponse(script, ScriptMessageType.ASKSLIDEMENU, null, items);
+    }
+
+    /**
+     * @return the action for <code>option</code>, or null if there isn't one.
+     */
+    public BasicScriptAction getAction(int option) {
+        if (items != null)
+            return option >= 0 && option < items.size() ? items.get(option).action() : null;
+        BasicScriptAction action = null;
+        for (var i = 0; i < slides.size(); i++) {
+            var item = slides.get(i);
+            if (item.index() == option)
+                action = item.action(); // Keep going, the last item with an index wins.
+        }
+        return action;
+    }
+
+    @Override
+    protected void respond(int type, int action, boolean present, int value) {
+        var next = present ? getAction(value) : null;
+        var bad = next == null;
+        var real = expectedType;
+        if (type != real || bad || action != 1) {
+            if (bad)
+                Trace.debug(log, "Value mismatch: val {} items {}", value, items != null ? items.size() : slides.size());
+            else if (type != real)
+                log.warn("ScriptMessageType mismatch: {} vs {}", type, real);
+            else
+                Trace.debug(log, "Answer is invalid: {}", action);
+            if (action == -1)
+                script.escape();
+            else
+                script.end();
+        } else {
+            script.setScriptResponse(null);
+            script.setScriptAction(next);
+            script.resumeInt(type, action, value);
+        }
+    }
+}
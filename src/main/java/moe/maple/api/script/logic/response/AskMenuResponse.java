@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.response;
+
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.IntSet;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An askMenu where the selection is passed on to the next {@link moe.maple.api.script.logic.action.IntegerScriptAction}.
+ */
+public class AskMenuResponse extends IntegerResponse {
+
+    private static final Logger log = LoggerFactory.getLogger( AskMenuResponse.class );
+
+    private final IntSet options;
+
+    /**
+     * @param options - The menu indices found in the prompt. Read only here, so a frozen set can be shared.
+     */
+    public AskMenuResponse(MoeScript script, IntSet options) {
+        super(script, ScriptMessageType.ASKMENU);
+        this.options = options;
+    }
+
+    public AskMenuResponse(MoeScript script, int... options) {
+        this(script, IntSet.of(options));
+    }
+
+    @Override
+    protected void respond(int type, int action, boolean present, int value) {
+        var real = expectedType;
+        if (type != real || action != 1) {
+            if (type != real)
+                log.warn("ScriptMessageType mismatch: {} vs {}", type, real);
+            else if (action == 0)
+                Trace.debug(log, "Answer escaped, escaping: {}", action);
+            else
+                log.warn("Answer wasn't valid, ending: {}", action);
+            script.escape(); // todo, ask menu is always an escape?
+        } else if (!present || !options.contains(value)) {
+            Trace.debug(log, "Value mismatch: val {} options {}", value, options);
+            script.end();
+        } else {
+            script.setScriptResponse(null);
+            script.resumeInt(type, action, value);
+        }
+    }
+}
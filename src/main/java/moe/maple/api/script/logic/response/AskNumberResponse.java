@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.response;
+
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AskNumberResponse extends IntegerResponse {
+
+    private static final Logger log = LoggerFactory.getLogger( AskNumberResponse.class );
+
+    private final int min, max;
+
+    public AskNumberResponse(MoeScript script, int min, int max) {
+        super(script, ScriptMessageType.ASKNUMBER);
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    protected void respond(int type, int action, boolean present, int value) {
+        var bad = !present || value < min || value > max;
+        var real = expectedType;
+
+        if (type != real || bad || action != 1) {
+            if (bad)
+                Trace.debug(log, "Value mismatch: min {}, max {}, val {}", min, max, value);
+            else if (type != real)
+                log.warn("ScriptMessageType mismatch: {} vs {}", type, real);
+            else
+                Trace.debug(log, "Answer is invalid: {}", action);
+            if (action == -1)
+                script.escape();
+            else
+                script.end();
+        } else {
+            script.setScriptResponse(null);
+            script.resumeInt(type, action, value);
+        }
+    }
+}
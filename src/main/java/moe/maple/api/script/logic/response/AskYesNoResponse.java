@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.response;
+
+import moe.maple.api.script.logic.action.BasicScriptAction;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Used by both askYesNo and askAccept, the answer is the action.
+ */
+public class AskYesNoResponse extends IntegerResponse {
+
+    private static final Logger log = LoggerFactory.getLogger( AskYesNoResponse.class );
+
+    private final BasicScriptAction onYes, onNo;
+
+    /**
+     * @param messageType - {@link ScriptMessageType#ASKYESNO} or {@link ScriptMessageType#ASKACCEPT}
+     */
+    public AskYesNoResponse(MoeScript script, int messageType, BasicScriptAction onYes, BasicScriptAction onNo) {
+        super(script, messageType);
+        this.onYes = onYes;
+        this.onNo = onNo;
+    }
+
+    @Override
+    protected void respond(int type, int action, boolean present, int value) {
+        var real = expectedType;
+        if (type != real) {
+            log.warn("ScriptMessageType mismatch: {} vs {}", type, real);
+            script.end();
+        } else if (action == 1 || action == 0) {
+            script.setScriptResponse(null);
+            script.setScriptAction(action == 0 ? onNo : onYes);
+            script.resumeInt(type, action, value);
+        } else if (action == -1) {
+            script.escape();
+        } else {
+            Trace.debug(log, "Answer was invalid, ending: {}", action);
+            script.end();
+        }
+    }
+}
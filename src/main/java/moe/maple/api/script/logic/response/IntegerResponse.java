@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.response;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A response to a prompt answered with a number, like a menu selection or a yes/no.
+ * Both the boxed and primitive paths end up in {@link #respond(int, int, boolean, int)}.
+ */
+public abstract class IntegerResponse implements ScriptResponse {
+
+    private static final Logger log = LoggerFactory.getLogger( IntegerResponse.class );
+
+    protected final MoeScript script;
+    // The server's value for the prompt's type, looked up once when the prompt is sent.
+    protected final int expectedType;
+
+    /**
+     * @param messageType - See {@link moe.maple.api.script.model.type.ScriptMessageType}
+     */
+    protected IntegerResponse(MoeScript script, int messageType) {
+        this.script = script;
+        this.expectedType = ScriptAPI.INSTANCE.getScriptMessageType(messageType);
+    }
+
+    @Override
+    public final void response(Number type, Number action, Object response) {
+        // Most versions decode the answer as a byte or short, so anything numeric will do.
+        if (response instanceof Number) {
+            respond(type.intValue(), action.intValue(), true, ((Number) response).intValue());
+        } else {
+            if (response != null)
+                Trace.debug(log, "Expected a number as a response, got: {}", response);
+            respond(type.intValue(), action.intValue(), false, 0);
+        }
+    }
+
+    @Override
+    public final void respondInt(int type, int action, int value) {
+        respond(type, action, true, value);
+    }
+
+    /**
+     * @param present - false if the client didn't answer with a value, <code>value</code> is 0.
+     */
+    protected abstract void respond(int type, int action, boolean present, int value);
+}
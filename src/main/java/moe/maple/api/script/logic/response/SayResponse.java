@@ -21,9 +21,6 @@
  */
 
 package moe.maple.api.script.logic.response;
-import moe.maple.api.script.logic.action.BasicScriptAction;
-import moe.maple.api.script.logic.action.ObjectScriptAction;
-import moe.maple.api.script.logic.chain.IntegerActionChain;
 import moe.maple.api.script.logic.event.PolledScriptEvent;
 import moe.maple.api.script.logic.ScriptAPI;
 import moe.maple.api.script.model.messenger.say.SayMessenger;
@@ -31,15 +28,21 @@ import moe.maple.api.script.model.object.user.UserObject;
 import moe.maple.api.script.model.MoeScript;
 import moe.maple.api.script.model.type.ScriptMessageType;
 import moe.maple.api.script.model.messenger.say.SayMessage;
+import moe.maple.api.script.util.Trace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractList;
 import java.util.List;
 
 /**
+ * A cursor over the pages of a say chain.
+ * One of these is created per {@link ScriptAPI#say(MoeScript, java.util.Collection)},
+ * paging back and forth only moves the index, and the cursor queues itself to send the current page.
+ *
  * Created on 8/26/2019.
  */
-public class SayResponse implements ScriptResponse {
+public class SayResponse implements ScriptResponse, PolledScriptEvent {
 
 
     public static final int END_CHAT = -1, PREV = 0, NEXT = 1;
@@ -47,29 +50,54 @@ public class SayResponse implements ScriptResponse {
 
     private final SayMessenger messenger;
     private final MoeScript script;
-    private final int index;
-    private final SayMessage msg;
-    private final SayResponse[] chain;
+    private final List<SayMessage> pages;
+    private final int expectedType;
+    private int index;
+
+    /**
+     * @param pages - Must not be empty, and shouldn't change while the script is using it.
+     */
+    public SayResponse(SayMessenger messenger, MoeScript script, List<SayMessage> pages) {
+        if (pages.isEmpty())
+            throw new IllegalArgumentException("A say chain needs at least one message.");
+        this.messenger = messenger;
+        this.script = script;
+        this.pages = pages;
+        this.expectedType = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.SAY);
+    }
 
+    /**
+     * The old one-response-per-page chain. Each response in <code>chain</code> shares one list of pages,
+     * filled in as they're created, so paging behaves the same as a single cursor.
+     * @deprecated use {@link #SayResponse(SayMessenger, MoeScript, List)} with every page instead.
+     */
+    @Deprecated
     public SayResponse(SayResponse[] chain, SayMessenger messenger, MoeScript script, int index, SayMessage ctx) {
-        this.chain = chain;
         this.messenger = messenger;
         this.script = script;
+        this.pages = ChainPages.of(chain, index, ctx);
         this.index = index;
-        this.msg = ctx;
+        this.expectedType = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.SAY);
     }
 
     @Override
     public void response(Number type, Number action, Object response) {
-        var real = ScriptAPI.INSTANCE.getScriptMessageType(ScriptMessageType.SAY);
-        if (type.intValue() == real) {
-            switch (action.intValue()) {
+        respondInt(type.intValue(), action.intValue(), 0);
+    }
+
+    /**
+     * Say prompts only answer with an action, <code>value</code> is passed along untouched.
+     */
+    @Override
+    public void respondInt(int type, int action, int value) {
+        if (type == expectedType) {
+            switch (action) {
                 case END_CHAT:
                     script.escape();
                     break;
                 case PREV:
                     if (hasPrev()) {
-                        onResponse(chain[index-1]);
+                        show(index - 1);
                     } else {
                         log.warn("Tried to go back while on the first message? No! :(");
                         script.end();
@@ -77,10 +105,10 @@ public class SayResponse implements ScriptResponse {
                     break;
                 case NEXT:
                     if (hasNext()) {
-                        onResponse(chain[index+1]);
+                        show(index + 1);
                     } else {
                         script.setScriptResponse(null);
-                        script.resume(type, action, response);
+                        script.resumeInt(type, action, value);
                     }
                     break;
                 default:
@@ -94,16 +122,39 @@ public class SayResponse implements ScriptResponse {
         }
     }
 
+    /**
+     * @deprecated use {@link #show(int)}
+     */
+    @Deprecated
     public void onResponse(SayResponse nextOrPrev) {
-        script.setScriptResponse(nextOrPrev);
-        script.addAfterRunEvent(
-            (PolledScriptEvent)moe -> script.getUserObject().ifPresentOrElse(nextOrPrev::sendTo,
-            () -> log.debug("User object isn't set, workflow is messy."))
-        );
+        nextOrPrev.show(nextOrPrev.index);
+    }
+
+    /**
+     * Moves to the page and sends it after the script's current run.
+     */
+    public void show(int page) {
+        if (page < 0 || page >= size())
+            throw new IndexOutOfBoundsException("Page " + page + " of " + size());
+        this.index = page;
+        script.setScriptResponse(this);
+        script.addAfterRunEvent(this);
+    }
+
+    /**
+     * Sends the current page, see {@link #show(int)}
+     */
+    @Override
+    public void act(MoeScript moe) {
+        var user = script.getUserObject();
+        if (user.isPresent())
+            sendTo(user.get());
+        else
+            Trace.debug(log, "User object isn't set, workflow is messy.");
     }
 
     public void sendTo(UserObject userObject) {
-        msg.onMessage(messenger, userObject, hasPrev(), hasNext() || scriptContinues());
+        pages.get(index).onMessage(messenger, userObject, hasPrev(), hasNext() || scriptContinues());
     }
 
     private boolean scriptContinues() {
@@ -111,20 +162,61 @@ public class SayResponse implements ScriptResponse {
     }
 
     private boolean hasPrev() {
-        return index > 0;//Could be safer here I guess.
+        return index > 0;
     }
 
     private boolean hasNext() {
         return index + 1 < size();
     }
 
-    private int size() {
-        return chain.length;
+    public int getIndex() {
+        return index;
+    }
+
+    public int size() {
+        return pages.size();
     }
 
     @Override
     public String toString() {
-        return msg.getMessage();//eh
+        return pages.get(index).getMessage();//eh
     }
 
+
+    // =================================================================================================================
+
+    private static final class ChainPages extends AbstractList<SayMessage> {
+
+        private final SayResponse[] chain;
+        private final SayMessage[] messages;
+
+        private ChainPages(SayResponse[] chain) {
+            this.chain = chain;
+            this.messages = new SayMessage[chain.length];
+        }
+
+        private static ChainPages of(SayResponse[] chain, int index, SayMessage message) {
+            ChainPages pages = null;
+            for (var response : chain) {
+                if (response != null && response.pages instanceof ChainPages && ((ChainPages) response.pages).chain == chain) {
+                    pages = (ChainPages) response.pages;
+                    break;
+                }
+            }
+            if (pages == null)
+                pages = new ChainPages(chain);
+            pages.messages[index] = message;
+            return pages;
+        }
+
+        @Override
+        public SayMessage get(int index) {
+            return messages[index];
+        }
+
+        @Override
+        public int size() {
+            return messages.length;
+        }
+    }
 }
@@ -25,4 +25,15 @@ package moe.maple.api.script.logic.response;
 @FunctionalInterface
 public interface ScriptResponse {
     void response(Number type, Number action, Object response);
+
+    /**
+     * A client reply carrying a number, like a menu selection. Responses that expect one
+     * should override this so nothing is boxed, the default boxes and calls {@link #response(Number, Number, Object)}.
+     */
+    default void respondInt(int type, int action, int value) { response(type, action, value); }
+
+    /**
+     * A client reply carrying text, see {@link #respondInt(int, int, int)}
+     */
+    default void respondText(int type, int action, String value) { response(type, action, value); }
 }
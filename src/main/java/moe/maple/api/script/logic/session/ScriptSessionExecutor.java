@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.session;
+
+import moe.maple.api.script.model.MoeScript;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs script calls one at a time per key (usually a user or character id), and different keys in parallel.
+ *
+ * Scripts aren't thread-safe, so every {@link MoeScript#start()}, resume and escape for a user needs to happen in order
+ * and never at the same time. Instead of a lock, each key gets a mailbox: calls are queued, and the mailbox drains them
+ * on the shared executor, at most one thread at a time. Calls for one key always see the effects of the previous ones.
+ *
+ * Call {@link #close(Object)} once a user is gone. Anything submitted for the key later gets a new mailbox,
+ * which only starts once the old one has finished.
+ */
+public final class ScriptSessionExecutor<K> {
+
+    private static final Logger log = LoggerFactory.getLogger( ScriptSessionExecutor.class );
+
+    /**
+     * How many calls a mailbox runs before it lets other users have the thread.
+     */
+    public static final int DEFAULT_BATCH = 32;
+
+    private final Executor executor;
+    private final int batch;
+    private final Map<K, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public ScriptSessionExecutor(Executor executor) {
+        this(executor, DEFAULT_BATCH);
+    }
+
+    public ScriptSessionExecutor(Executor executor, int batch) {
+        if (batch < 1)
+            throw new IllegalArgumentException("Batch must be at least 1.");
+        this.executor = executor;
+        this.batch = batch;
+    }
+
+    // =================================================================================================================
+
+    /**
+     * Queues <code>task</code> behind everything else submitted for <code>key</code>.
+     * Exceptions thrown by the task are logged, and don't stop the tasks after it.
+     * @throws RejectedExecutionException if the executor won't take the mailbox
+     */
+    public void execute(K key, Runnable task) {
+        while (true) {
+            var mailbox = mailboxes.get(key);
+            if (mailbox == null)
+                mailbox = mailboxes.computeIfAbsent(key, Mailbox::new);
+            // A closed mailbox turns tasks away once it's idle, the next one made for the key takes over.
+            if (mailbox.offer(task)) {
+                mailbox.schedule();
+                return;
+            }
+        }
+    }
+
+    public void start(K key, MoeScript script) {
+        execute(key, script::start);
+    }
+
+    public void resume(K key, MoeScript script, Number type, Number action, Object response) {
+        execute(key, () -> script.resume(type, action, response));
+    }
+
+    public void resumeInt(K key, MoeScript script, int type, int action, int value) {
+        execute(key, () -> script.resumeInt(type, action, value));
+    }
+
+    public void resumeText(K key, MoeScript script, int type, int action, String value) {
+        execute(key, () -> script.resumeText(type, action, value));
+    }
+
+    public void escape(K key, MoeScript script) {
+        execute(key, script::escape);
+    }
+
+    /**
+     * Ends the script in turn with its other calls, see {@link ScriptSessionReaper}.
+     */
+    public void end(K key, MoeScript script) {
+        execute(key, script::end);
+    }
+
+    /**
+     * Forgets the mailbox for <code>key</code> once it's idle. Anything already queued still runs,
+     * and so does anything submitted before then, in order. A mailbox is never replaced while it's draining,
+     * so calls for a key don't run in parallel even around a close.
+     */
+    public void close(K key) {
+        var mailbox = mailboxes.get(key);
+        if (mailbox != null) {
+            mailbox.closing = true;
+            mailbox.retireIfIdle();
+        }
+    }
+
+    /**
+     * @return keys with a mailbox, idle or not.
+     */
+    public int size() {
+        return mailboxes.size();
+    }
+
+    // =================================================================================================================
+
+    private final class Mailbox implements Runnable {
+
+        private final K key;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        // Set while the mailbox is queued on, or running in, the executor. Doubles as the hand-off between threads.
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closing;
+        private boolean retired;
+
+        private Mailbox(K key) {
+            this.key = key;
+        }
+
+        private synchronized boolean offer(Runnable task) {
+            if (retired)
+                return false;
+            queue.add(task);
+            return true;
+        }
+
+        /**
+         * Taking the same lock as {@link #offer(Runnable)} means a task is either queued before the check,
+         * and keeps the mailbox alive, or turned away after it.
+         */
+        private synchronized void retireIfIdle() {
+            if (closing && !retired && queue.isEmpty() && !scheduled.get()) {
+                retired = true;
+                mailboxes.remove(key, this);
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (var i = 0; i < batch; i++) {
+                var task = queue.poll();
+                if (task == null)
+                    break;
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    log.error("Script session({}) task threw an exception.", key, t);
+                }
+            }
+            scheduled.set(false);
+            // Something may have been queued after the last poll, but before the flag was cleared.
+            if (!queue.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    log.warn("Script session({}) couldn't be rescheduled, {} tasks left.", key, queue.size(), e);
+                }
+            } else if (closing) {
+                retireIfIdle();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.logic.session;
+
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.util.Trace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Ends scripts that have been waiting on a user for too long, like after a disconnect or a client that never answers.
+ *
+ * Sessions are kept on a hashed timing wheel: a ring of buckets, one per tick, each a doubly linked list.
+ * Watching, touching and cancelling a session are O(1), and each tick only looks at one bucket.
+ * Timeouts are rounded up to the tick, so a session may live up to one tick longer than the timeout.
+ *
+ * Something has to drive the wheel, either {@link #start(ScheduledExecutorService)} or calling {@link #advance()}
+ * from your own loop. Expired sessions are handed to <code>onExpire</code> on the thread driving the wheel.
+ * Scripts aren't thread-safe, so <code>onExpire</code> should hand the script over to wherever it's resumed,
+ * usually {@link ScriptSessionExecutor#end(Object, MoeScript)}:
+ * <pre>
+ *     new ScriptSessionReaper(5, TimeUnit.MINUTES, script -> sessions.end(keyOf(script), script));
+ * </pre>
+ */
+public final class ScriptSessionReaper {
+
+    private static final Logger log = LoggerFactory.getLogger( ScriptSessionReaper.class );
+
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickNanos;
+    private final long timeoutTicks;
+    private final Session[] wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long startNanos;
+    private final Consumer<MoeScript> onExpire;
+
+    private long tick;
+    private int size;
+
+    /**
+     * Ticks once a second, fine for timeouts measured in minutes.
+     */
+    public ScriptSessionReaper(long timeout, TimeUnit unit, Consumer<MoeScript> onExpire) {
+        this(unit.toNanos(timeout), TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS, DEFAULT_WHEEL_SIZE, onExpire, System::nanoTime);
+    }
+
+    /**
+     * @param timeout   - How long a session can sit idle, in <code>unit</code>.
+     * @param tick      - How often the wheel moves, in <code>unit</code>. This is the precision of the timeout.
+     * @param wheelSize - Buckets on the wheel, rounded up to a power of two. Ideally timeout / tick or more.
+     * @param onExpire  - Called with each expired script, outside of any lock, on the thread calling {@link #advance()}.
+     * @param clock     - Nano time, {@link System#nanoTime()} outside of tests.
+     */
+    public ScriptSessionReaper(long timeout, long tick, TimeUnit unit, int wheelSize, Consumer<MoeScript> onExpire, LongSupplier clock) {
+        if (timeout <= 0 || tick <= 0 || wheelSize <= 0)
+            throw new IllegalArgumentException("Timeout, tick and wheel size must be positive.");
+        var size = Integer.highestOneBit(Math.min(wheelSize, 1 << 30));
+        if (size < wheelSize)
+            size <<= 1;
+        this.tickNanos = unit.toNanos(tick);
+        this.timeoutTicks = Math.max(1, (unit.toNanos(timeout) + tickNanos - 1) / tickNanos);
+        this.wheel = new Session[size];
+        this.mask = size - 1;
+        this.onExpire = Objects.requireNonNull(onExpire);
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    // =================================================================================================================
+
+    /**
+     * Starts the timeout for <code>script</code>. It expires unless {@link #touch(Session)}ed or {@link #cancel(Session)}ed in time.
+     */
+    public synchronized Session watch(MoeScript script) {
+        var session = new Session(script);
+        link(session);
+        return session;
+    }
+
+    /**
+     * {@link #watch(MoeScript)}, touched after every run of the script and cancelled when it ends.
+     * Only attach a script once, the events stay on it until it's recycled.
+     */
+    public Session attach(MoeScript script) {
+        var session = watch(script);
+        script.addAfterRunEvent(s -> touch(session));
+        script.addEndEvent(s -> cancel(session));
+        return session;
+    }
+
+    /**
+     * Restarts the timeout, call when the user answers.
+     * @return false if the session already expired or was cancelled.
+     */
+    public synchronized boolean touch(Session session) {
+        if (!session.linked)
+            return false;
+        unlink(session);
+        link(session);
+        return true;
+    }
+
+    /**
+     * @return false if the session already expired or was cancelled.
+     */
+    public synchronized boolean cancel(Session session) {
+        if (!session.linked)
+            return false;
+        unlink(session);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // =================================================================================================================
+
+    /**
+     * Moves the wheel up to now, and expires everything that's due.
+     * @return how many sessions expired.
+     */
+    public int advance() {
+        ArrayList<Session> expired = null;
+        synchronized (this) {
+            var target = (clock.getAsLong() - startNanos) / tickNanos;
+            // After a long pause every bucket gets looked at once, there's no point going around again.
+            var steps = Math.min(target - tick, wheel.length);
+            for (var i = 0; i < steps; i++) {
+                var bucket = (int) ((tick + 1 + i) & mask);
+                var session = wheel[bucket];
+                while (session != null) {
+                    var next = session.next;
+                    if (session.deadline <= target) {
+                        unlink(session);
+                        session.expired = true;
+                        if (expired == null)
+                            expired = new ArrayList<>();
+                        expired.add(session);
+                    }
+                    session = next;
+                }
+            }
+            tick = Math.max(tick, target);
+        }
+        if (expired == null)
+            return 0;
+        for (var session : expired) {
+            try {
+                Trace.script(log, "Script session expired: {} / {}", session.script);
+                onExpire.accept(session.script);
+            } catch (Throwable t) {
+                log.error("Oh no! Expiring a script({}) threw an exception.", session.script.name(), t);
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Advances the wheel every tick on <code>scheduler</code>.
+     */
+    public ScheduledFuture<?> start(ScheduledExecutorService scheduler) {
+        return scheduler.scheduleAtFixedRate(this::advance, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // =================================================================================================================
+
+    private void link(Session session) {
+        session.deadline = tick + timeoutTicks;
+        session.bucket = (int) (session.deadline & mask);
+        var head = wheel[session.bucket];
+        session.prev = null;
+        session.next = head;
+        if (head != null)
+            head.prev = session;
+        wheel[session.bucket] = session;
+        session.linked = true;
+        size++;
+    }
+
+    private void unlink(Session session) {
+        if (session.prev != null)
+            session.prev.next = session.next;
+        else
+            wheel[session.bucket] = session.next;
+        if (session.next != null)
+            session.next.prev = session.prev;
+        session.prev = session.next = null;
+        session.linked = false;
+        size--;
+    }
+
+    /**
+     * A watched script. Only touch its state through the reaper.
+     */
+    public static final class Session {
+
+        private final MoeScript script;
+        private Session prev, next;
+        private long deadline;
+        private int bucket;
+        private boolean linked;
+        private volatile boolean expired;
+
+        private Session(MoeScript script) {
+            this.script = script;
+        }
+
+        public MoeScript script() {
+            return script;
+        }
+
+        public boolean isExpired() {
+            return expired;
+        }
+    }
+}
@@ -23,10 +23,7 @@
 package moe.maple.api.script.model;
 
 import moe.maple.api.script.logic.ScriptAPI;
-import moe.maple.api.script.logic.action.BasicScriptAction;
-import moe.maple.api.script.logic.action.IntegerScriptAction;
 import moe.maple.api.script.logic.action.ScriptAction;
-import moe.maple.api.script.logic.action.StringScriptAction;
 import moe.maple.api.script.model.object.*;
 import moe.maple.api.script.model.object.field.NpcObject;
 import moe.maple.api.script.model.object.field.PortalObject;
@@ -36,10 +33,14 @@ import moe.maple.api.script.model.object.user.QuestObject;
 import moe.maple.api.script.model.object.user.UserObject;
 import moe.maple.api.script.logic.response.ScriptResponse;
 import moe.maple.api.script.logic.event.ScriptEvent;
+import moe.maple.api.script.logic.event.ScriptEventList;
+import moe.maple.api.script.util.Trace;
 import moe.maple.api.script.util.With;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
 
 public abstract class BaseScript implements MoeScript {
@@ -50,34 +51,38 @@ public abstract class BaseScript implements MoeScript {
 
     protected ScriptAction nextAction;
     protected ScriptResponse nextResponse;
-    private List<ScriptEvent> startScriptEvents;
-    private List<ScriptEvent> endScriptEvents;
-    private List<ScriptEvent> beforeRunEvents;
-    private List<ScriptEvent> afterRunEvents;
-    private List<ScriptEvent> npEvents;
+    private ScriptEventList startScriptEvents;
+    private ScriptEventList endScriptEvents;
+    private ScriptEventList beforeRunEvents;
+    private ScriptEventList afterRunEvents;
+    private ScriptEventList npEvents;
     private ScriptEvent escapeEvent;
 
-    protected ServerObject<?> server;
-    protected FieldObject<?> field;
-    protected FieldSetObject<?> fieldset;
-    protected NpcObject<?> npc;
-    protected PortalObject<?> portal;
-    protected QuestObject<?> quest;
-    protected ReactorObject<?> reactor;
-    protected InventorySlotObject<?> item;
-    protected UserObject<?> user;
+    // Everything the script was triggered with. The setters replace it, so a context handed out is never changed.
+    private ScriptContext context;
 
     private boolean done;
 
+    private static final VarHandle POOL_GENERATION;
+    // Even while free, odd while a pool has it handed out.
+    private volatile int poolGeneration;
+
+    static {
+        try {
+            POOL_GENERATION = MethodHandles.lookup().findVarHandle(BaseScript.class, "poolGeneration", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     public BaseScript() {
         this.expected = "";
+        this.context = ScriptContext.EMPTY;
     }
 
     @Override
     public String name() {
-        var annotation = this.getClass().getAnnotation(Script.class);
-        if (annotation == null) return "Unnamed Script: "+this.getClass().getName();
-        return annotation.name()[0];
+        return metadata().name();
     }
 
     @Override
@@ -90,6 +95,22 @@ public abstract class BaseScript implements MoeScript {
         return expected;
     }
 
+    @Override
+    public int getPoolGeneration() {
+        return poolGeneration;
+    }
+
+    @Override
+    public boolean markAcquired() {
+        var generation = poolGeneration;
+        return (generation & 1) == 0 && POOL_GENERATION.compareAndSet(this, generation, generation + 1);
+    }
+
+    @Override
+    public boolean markReleased(int generation) {
+        return (generation & 1) == 1 && POOL_GENERATION.compareAndSet(this, generation, generation + 1);
+    }
+
     protected abstract void work();
 
     // =================================================================================================================
@@ -116,17 +137,9 @@ public abstract class BaseScript implements MoeScript {
 
     // =================================================================================================================
 
-    private void doEvents(List<ScriptEvent> events) {
-        if (events == null)
-            return;
-        var iter = events.iterator();
-        while (iter.hasNext()) {
-            var next = iter.next();
-            next.act(this);
-
-            if (next.isSingleUse())
-                iter.remove();
-        }
+    private void doEvents(ScriptEventList events) {
+        if (events != null)
+            events.run(this);
     }
 
     // =================================================================================================================
@@ -140,40 +153,40 @@ public abstract class BaseScript implements MoeScript {
     @Override
     public void start() {
         if (!hasPermission()) {
-            log.debug("Script({}/{}) doesn't have permission to run, not starting.", name(), expected);
+            Trace.script(log, "Script({}/{}) doesn't have permission to run, not starting.", this);
             doEvents(npEvents);
             return;
         }
-        log.debug("Script is starting: {} / {}", name(), expected);
+        Trace.script(log, "Script is starting: {} / {}", this);
         this.done = false;
         this.nextResponse = null;
         this.nextAction = null;
         doEvents(startScriptEvents);
 
         if (ScriptAPI.INSTANCE.getPreferences().shouldCatchExceptions()) {
-            log.debug("Starting with exception handling...");
+            Trace.debug(log, "Starting with exception handling...");
             With.silence(this::startMaybeException, (e) -> {
                 log.error("Oh no! A script({})({}) threw an exception during start.", name(), expected, e);
                 end();
             });
         } else {
-            log.debug("Starting without exception handling...");
+            Trace.debug(log, "Starting without exception handling...");
             startMaybeException();
         }
 
         if (!isNextResponseSet() && !isNextActionSet())
             end();
         else
-            log.debug("Next actions are set, waiting for response to resume: {} / {}", isNextResponseSet(), isNextActionSet());
+            Trace.debug(log, "Next actions are set, waiting for response to resume: {} / {}", isNextResponseSet(), isNextActionSet());
     }
 
     @Override
     public void end() {
         if (isDone()) {
-            log.debug("Script is already done: {} / {}", name(), expected);
+            Trace.script(log, "Script is already done: {} / {}", this);
             return;
         }
-        log.debug("Script has ended: {} / {}", name(), expected);
+        Trace.script(log, "Script has ended: {} / {}", this);
         doEvents(endScriptEvents);
         this.escapeEvent = null;
         this.nextResponse = null;
@@ -183,7 +196,7 @@ public abstract class BaseScript implements MoeScript {
 
     @Override
     public void escape() {
-        log.debug("Escape response being processed.");
+        Trace.debug(log, "Escape response being processed.");
         if (this.escapeEvent != null) {
             var event = this.escapeEvent;
             if (this.escapeEvent.isSingleUse()) {
@@ -202,34 +215,52 @@ public abstract class BaseScript implements MoeScript {
         this.escapeEvent = null;
         this.nextResponse = null;
         this.nextAction = null;
-        this.beforeRunEvents = null;
-        this.afterRunEvents = null;
+        clear(beforeRunEvents);
+        clear(afterRunEvents);
         this.done = false;
     }
 
+    @Override
+    public void recycle() {
+        MoeScript.super.recycle();
+        // Keep the lists, they'll most likely be filled again by the next user.
+        clear(startScriptEvents);
+        clear(endScriptEvents);
+        clear(npEvents);
+    }
+
+    private static void clear(ScriptEventList events) {
+        if (events != null)
+            events.clear();
+    }
+
+    // What kind of reply is being resumed, so the int and text paths don't need to box.
+    private static final int REPLY_OBJECT = 0, REPLY_INT = 1, REPLY_TEXT = 2;
+
     /**
      * Most likely cause of an exception: user input.
      */
-    private void resumeMaybeException(Number type, Number action, Object response) {
+    private void resumeMaybeException(int reply, int type, int action, int value, Object response) {
         var act = nextAction;
         var resp = nextResponse;
 
         if (isNextResponseSet()) {
             doEvents(beforeRunEvents);
-            resp.response(type, action, response);
+            if (reply == REPLY_INT)
+                resp.respondInt(type, action, value);
+            else if (reply == REPLY_TEXT)
+                resp.respondText(type, action, (String) response);
+            else
+                resp.response(type, action, response);
             doEvents(afterRunEvents);
         } else {
             doEvents(beforeRunEvents);
-            if (act instanceof BasicScriptAction) {
-                ((BasicScriptAction) act).act();
-            } else if (act instanceof IntegerScriptAction) {
-                ((IntegerScriptAction) act).act(((Number)response).intValue());
-            } else if (act instanceof StringScriptAction) {
-                ((StringScriptAction) act).act((String) response);
-            } else {
-                log.error("Couldn't process action: {}", act.getClass().getSimpleName());
-                this.nextResponse = null;
-            }
+            if (reply == REPLY_INT)
+                act.invokeInt(value);
+            else if (reply == REPLY_TEXT)
+                act.invokeText((String) response);
+            else
+                act.invoke(response);
             doEvents(afterRunEvents); // Should we still run if action is missing?
 
             if (nextResponse == null)
@@ -237,25 +268,45 @@ public abstract class BaseScript implements MoeScript {
         }
     }
 
-    @Override
-    public void resume(Number type, Number action, Object response) {
-        log.debug("Resuming Script({})({}) with: {} / {} / {}", name(), expected, type, action, response);
-
+    private void resume(int reply, int type, int action, int value, Object response) {
         if (isPaused()) {
             if (ScriptAPI.INSTANCE.getPreferences().shouldCatchExceptions()) {
-                With.silence(() -> resumeMaybeException(type, action, response), e -> {
+                // Not With.silence, the lambdas would be allocated on every page of every dialog.
+                try {
+                    resumeMaybeException(reply, type, action, value, response);
+                } catch (Exception e) {
                     log.error("Oh no! A script({})({}) threw an exception during resume.", name(), expected, e);
                     end();
-                });
+                }
             } else {
-                resumeMaybeException(type, action, response);
+                resumeMaybeException(reply, type, action, value, response);
             }
         } else {
-            log.debug("Script isn't paused, ending.");
+            Trace.debug(log, "Script isn't paused, ending.");
             end();
         }
     }
 
+    @Override
+    public void resume(Number type, Number action, Object response) {
+        var t = type.intValue();
+        var a = action.intValue();
+        Trace.script(log, "Resuming Script({})({}) with: {} / {} / {}", this, t, a, response);
+        resume(REPLY_OBJECT, t, a, 0, response);
+    }
+
+    @Override
+    public void resumeInt(int type, int action, int value) {
+        Trace.script(log, "Resuming Script({})({}) with: {} / {} / {}", this, type, action, value);
+        resume(REPLY_INT, type, action, value, null);
+    }
+
+    @Override
+    public void resumeText(int type, int action, String value) {
+        Trace.script(log, "Resuming Script({})({}) with: {} / {} / {}", this, type, action, value);
+        resume(REPLY_TEXT, type, action, 0, value);
+    }
+
     // =================================================================================================================
 
     @Override
@@ -278,128 +329,160 @@ public abstract class BaseScript implements MoeScript {
     @Override
     public void addStartEvent(ScriptEvent event) {
         if (startScriptEvents == null)
-            startScriptEvents = new ArrayList<>();
+            startScriptEvents = new ScriptEventList();
         startScriptEvents.add(event);
     }
 
     @Override
     public void addEndEvent(ScriptEvent event) {
         if (endScriptEvents == null)
-            endScriptEvents = new ArrayList<>();
+            endScriptEvents = new ScriptEventList();
         this.endScriptEvents.add(event);
     }
 
     @Override
     public void addAfterRunEvent(ScriptEvent event) {
         if (afterRunEvents == null)
-            afterRunEvents = new ArrayList<>();
+            afterRunEvents = new ScriptEventList();
         afterRunEvents.add(event);
     }
 
     @Override
     public void addBeforeRunEvent(ScriptEvent event) {
         if (beforeRunEvents == null)
-            beforeRunEvents = new ArrayList<>();
+            beforeRunEvents = new ScriptEventList();
         beforeRunEvents.add(event);
     }
 
     @Override
     public void addNoPermissionEvent(ScriptEvent event) {
         if (npEvents == null)
-            npEvents = new ArrayList<>();
+            npEvents = new ScriptEventList();
         npEvents.add(event);
     }
 
     // =================================================================================================================
 
+    /**
+     * Goes through the setters, so subclasses that keep their own reference, like <code>self</code>, see it too.
+     * The context is kept first, the setters then see nothing changed and don't copy it.
+     */
+    @Override
+    public void setContext(ScriptContext context) {
+        this.context = context == null ? ScriptContext.EMPTY : context;
+        MoeScript.super.setContext(this.context);
+    }
+
+    /**
+     * @return the context this script is in, the same instance until something in it is set.
+     */
+    @Override
+    public ScriptContext getContext() {
+        return context;
+    }
+
+    @Override
+    public int getSpeakerTemplateId() {
+        var npc = context.getNpc();
+        return npc == null ? 2007 : npc.getTemplateId();
+    }
 
     @Override
     public void setServerObject(ServerObject<?> object) {
-        this.server = object;
+        if (context.getServer() != object)
+            context = context.toBuilder().server(object).build();
     }
 
     @Override
     public void setFieldObject(FieldObject<?> field) {
-        this.field = field;
+        if (context.getField() != field)
+            context = context.toBuilder().field(field).build();
     }
 
     @Override
     public void setFieldSetObject(FieldSetObject<?> fieldset) {
-        this.fieldset = fieldset;
+        if (context.getFieldSet() != fieldset)
+            context = context.toBuilder().fieldset(fieldset).build();
     }
 
     @Override
     public void setNpcObject(NpcObject<?> npc) {
-        this.npc = npc;
+        if (context.getNpc() != npc)
+            context = context.toBuilder().npc(npc).build();
     }
 
     @Override
     public void setPortalObject(PortalObject<?> portal) {
-        this.portal = portal;
+        if (context.getPortal() != portal)
+            context = context.toBuilder().portal(portal).build();
     }
 
     @Override
     public void setQuestObject(QuestObject<?> quest) {
-        this.quest = quest;
+        if (context.getQuest() != quest)
+            context = context.toBuilder().quest(quest).build();
     }
 
     @Override
     public void setInventorySlotObject(InventorySlotObject<?> item) {
-        this.item = item;
+        if (context.getInventorySlot() != item)
+            context = context.toBuilder().item(item).build();
     }
 
     @Override
     public void setReactorObject(ReactorObject<?> reactor) {
-        this.reactor = reactor;
+        if (context.getReactor() != reactor)
+            context = context.toBuilder().reactor(reactor).build();
     }
 
     @Override
     public void setUserObject(UserObject<?> user) {
-        this.user = user;
+        if (context.getUser() != user)
+            context = context.toBuilder().user(user).build();
     }
 
     @Override
     public Optional<InventorySlotObject<?>> getInventorySlotObject() {
-        return Optional.ofNullable(item);
+        return context.getInventorySlotObject();
     }
 
     @Override
     public Optional<ServerObject<?>> getServerObject() {
-        return Optional.ofNullable(server);
+        return context.getServerObject();
     }
 
     @Override
     public Optional<FieldObject<?>> getFieldObject() {
-        return Optional.ofNullable(field);
+        return context.getFieldObject();
     }
 
     @Override
     public Optional<FieldSetObject<?>> getFieldSetObject() {
-        return Optional.ofNullable(fieldset);
+        return context.getFieldSetObject();
     }
 
     @Override
     public Optional<NpcObject<?>> getNpcObject() {
-        return Optional.ofNullable(npc);
+        return context.getNpcObject();
     }
 
     @Override
     public Optional<PortalObject<?>> getPortalObject() {
-        return Optional.ofNullable(portal);
+        return context.getPortalObject();
     }
 
     @Override
     public Optional<QuestObject<?>> getQuestObject() {
-        return Optional.ofNullable(quest);
+        return context.getQuestObject();
     }
 
     @Override
     public Optional<ReactorObject<?>> getReactorObject() {
-        return Optional.ofNullable(reactor);
+        return context.getReactorObject();
     }
 
     @Override
     public Optional<UserObject<?>> getUserObject() {
-        return Optional.ofNullable(user);
+        return context.getUserObject();
     }
 }
@@ -33,6 +33,11 @@ public abstract class ItemScript extends NpcScript {
     public ItemScript() { super(); }
 
     public void setItemObject(InventorySlotObject item) {
+        setInventorySlotObject(item);
+    }
+
+    @Override
+    public void setInventorySlotObject(InventorySlotObject item) {
         this.item = item;
         super.setInventorySlotObject(item);
     }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.logic.linear.ScriptCancelledException;
+import moe.maple.api.script.logic.linear.ScriptFiber;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A script written top to bottom, without <code>andThen</code>:
+ * <pre>
+ *     protected void run() {
+ *         if (askYesNo("Want to go to Henesys?")) {
+ *             var where = askMenu("Pick one", List.of("Town", "Hunting ground"));
+ *             say("Off you go!");
+ *         }
+ *     }
+ * </pre>
+ * The body runs on its own thread, each ask sends its prompt through {@link ScriptAPI} as usual and parks the thread
+ * until the user answers. Only the body or its caller ever run at once, so the script needs no extra locking.
+ * On Java 21 the body runs on a virtual thread, see {@link ScriptFiber#isVirtual()}.
+ *
+ * If the user escapes, or the script is ended, the waiting ask throws a {@link ScriptCancelledException}.
+ * Don't catch it, let the body unwind.
+ */
+public abstract class LinearScript extends BaseScript {
+
+    private ScriptFiber fiber;
+
+    /**
+     * The script body. Blocking calls are only allowed from here.
+     */
+    protected abstract void run();
+
+    @Override
+    protected final void work() {
+        fiber = new ScriptFiber("Script-" + name(), this::run);
+        fiber.start();
+    }
+
+    @Override
+    public void end() {
+        var current = fiber;
+        if (current != null && !current.isFinished())
+            current.cancel();
+        super.end();
+    }
+
+    private Object await() {
+        if (fiber == null)
+            throw new IllegalStateException("Blocking calls can only be made from run().");
+        return fiber.park();
+    }
+
+    private void answer(Object answer) {
+        fiber.resume(answer);
+    }
+
+    // =================================================================================================================
+
+    /**
+     * Shows the messages as a say chain, and returns once the user reads past the last one.
+     */
+    protected void say(String... messages) {
+        ScriptAPI.say(this, 0, List.of(messages)).andThen(() -> answer(null));
+        await();
+    }
+
+    protected boolean askYesNo(String message) {
+        ScriptAPI.askYesNo(this, message, () -> answer(Boolean.TRUE), () -> answer(Boolean.FALSE));
+        return (Boolean) await();
+    }
+
+    protected boolean askAccept(String message) {
+        ScriptAPI.askAccept(this, message, () -> answer(Boolean.TRUE), () -> answer(Boolean.FALSE));
+        return (Boolean) await();
+    }
+
+    /**
+     * @return the index of the picked item.
+     */
+    protected int askMenu(String prompt, Collection<String> items) {
+        ScriptAPI.askMenu(this, prompt, items).andThen(this::answer);
+        return (Integer) await();
+    }
+
+    protected int askNumber(String message, int defaultNumber, int min, int max) {
+        ScriptAPI.askNumber(this, message, defaultNumber, min, max).andThen(this::answer);
+        return (Integer) await();
+    }
+
+    protected String askText(String message, String defaultText, int min, int max) {
+        ScriptAPI.askText(this, message, defaultText, min, max).andThen(this::answer);
+        return (String) await();
+    }
+}
@@ -33,6 +33,7 @@ import moe.maple.api.script.model.object.user.UserObject;
 import moe.maple.api.script.logic.response.ScriptResponse;
 import moe.maple.api.script.logic.event.ScriptEvent;
 import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.registry.ScriptMetadata;
 
 import java.util.Optional;
 
@@ -40,6 +41,11 @@ public interface MoeScript {
 
     String name();
 
+    /**
+     * Everything the {@link Script} annotation says about this script, read once per class.
+     */
+    default ScriptMetadata metadata() { return ScriptMetadata.get(getClass()); }
+
     /**
      *  Scripts can have multiple names and aliases,
      *  since it is unsure which script you're aiming at,
@@ -95,6 +101,17 @@ public interface MoeScript {
      */
     void resume(Number type, Number action, Object response);
 
+    /**
+     * {@link #resume(Number, Number, Object)} for replies carrying a number, like menu selections.
+     * Packet handlers should prefer this, it doesn't box anything on the way to the script.
+     */
+    default void resumeInt(int type, int action, int value) { resume(type, action, value); }
+
+    /**
+     * {@link #resume(Number, Number, Object)} for replies carrying text.
+     */
+    default void resumeText(int type, int action, String value) { resume(type, action, value); }
+
     /**
      * Called if {@link #resume(Number, Number, Object)}'s <code>action</code>
      * matches the escape event, typically -1.
@@ -108,6 +125,36 @@ public interface MoeScript {
     void reset();
     default void resetAndStart() { reset(); start(); }
 
+    /**
+     * Resets the script and lets go of everything it was given, so the instance can be reused for someone else.
+     * Scripts that keep their own state in fields should override this, clear it, and call super.
+     * See {@link moe.maple.api.script.registry.ScriptPool}
+     */
+    default void recycle() {
+        reset();
+        setExpected("");
+        setContext(ScriptContext.EMPTY);
+    }
+
+    /**
+     * Counts how many times a {@link moe.maple.api.script.registry.ScriptPool} handed this script out and took it back,
+     * odd while it's handed out. Keep the value from when the script was acquired to release it later,
+     * see {@link moe.maple.api.script.registry.ScriptPool#release(MoeScript, int)}.
+     * The defaults don't track anything, {@link BaseScript} does.
+     */
+    default int getPoolGeneration() { return 1; }
+
+    /**
+     * @return true if the script was free and is now handed out.
+     */
+    default boolean markAcquired() { return true; }
+
+    /**
+     * @return true if the script was handed out in <code>generation</code> and is now free.
+     * Only one caller can win for a given generation.
+     */
+    default boolean markReleased(int generation) { return true; }
+
     // =================================================================================================================
 
     void setScriptAction(ScriptAction action);
@@ -147,6 +194,41 @@ public interface MoeScript {
 
     // =================================================================================================================
 
+    /**
+     * Sets everything the script was triggered with in one go. The context can be shared with other scripts.
+     * The default copies it into the setters below, {@link BaseScript} also keeps the reference for {@link #getContext()}.
+     */
+    default void setContext(ScriptContext context) {
+        if (context == null)
+            context = ScriptContext.EMPTY;
+        setInventorySlotObject(context.getInventorySlot());
+        setServerObject(context.getServer());
+        setFieldObject(context.getField());
+        setFieldSetObject(context.getFieldSet());
+        setNpcObject(context.getNpc());
+        setPortalObject(context.getPortal());
+        setQuestObject(context.getQuest());
+        setReactorObject(context.getReactor());
+        setUserObject(context.getUser());
+    }
+
+    /**
+     * The default builds a new context from the getters below, {@link BaseScript} holds one and returns it.
+     */
+    default ScriptContext getContext() {
+        return ScriptContext.builder()
+                .item(getInventorySlotObject().orElse(null))
+                .server(getServerObject().orElse(null))
+                .field(getFieldObject().orElse(null))
+                .fieldset(getFieldSetObject().orElse(null))
+                .npc(getNpcObject().orElse(null))
+                .portal(getPortalObject().orElse(null))
+                .quest(getQuestObject().orElse(null))
+                .reactor(getReactorObject().orElse(null))
+                .user(getUserObject().orElse(null))
+                .build();
+    }
+
     void setInventorySlotObject(InventorySlotObject<?> itemSlot);
     void setServerObject(ServerObject<?> object);
     void setFieldObject(FieldObject<?> object);
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model;
+
+import moe.maple.api.script.model.object.*;
+import moe.maple.api.script.model.object.field.NpcObject;
+import moe.maple.api.script.model.object.field.PortalObject;
+import moe.maple.api.script.model.object.field.ReactorObject;
+import moe.maple.api.script.model.object.user.InventorySlotObject;
+import moe.maple.api.script.model.object.user.QuestObject;
+import moe.maple.api.script.model.object.user.UserObject;
+
+import java.util.Optional;
+
+/**
+ * Everything a script was triggered with: the user, the npc they clicked, the field they're in, and so on.
+ * The server builds one per trigger and hands it to the script with {@link MoeScript#setContext(ScriptContext)},
+ * instead of calling nine setters.
+ *
+ * Contexts are immutable and can be shared between scripts. The <code>getX()</code> accessors return null
+ * when something isn't set, the <code>getXObject()</code> ones return an {@link Optional} that's made once, here.
+ */
+public final class ScriptContext {
+
+    public static final ScriptContext EMPTY = builder().build();
+    private final ServerObject<?> server;
+    private final FieldObject<?> field;
+    private final FieldSetObject<?> fieldset;
+    private final NpcObject<?> npc;
+    private final PortalObject<?> portal;
+    private final QuestObject<?> quest;
+    private final ReactorObject<?> reactor;
+    private final InventorySlotObject<?> item;
+    private final UserObject<?> user;
+
+    private final Optional<ServerObject<?>> serverObject;
+    private final Optional<FieldObject<?>> fieldObject;
+    private final Optional<FieldSetObject<?>> fieldsetObject;
+    private final Optional<NpcObject<?>> npcObject;
+    private final Optional<PortalObject<?>> portalObject;
+    private final Optional<QuestObject<?>> questObject;
+    private final Optional<ReactorObject<?>> reactorObject;
+    private final Optional<InventorySlotObject<?>> itemObject;
+    private final Optional<UserObject<?>> userObject;
+
+    private ScriptContext(Builder builder) {
+        this.server = builder.server;
+        this.field = builder.field;
+        this.fieldset = builder.fieldset;
+        this.npc = builder.npc;
+        this.portal = builder.portal;
+        this.quest = builder.quest;
+        this.reactor = builder.reactor;
+        this.item = builder.item;
+        this.user = builder.user;
+        this.serverObject = Optional.ofNullable(server);
+        this.fieldObject = Optional.ofNullable(field);
+        this.fieldsetObject = Optional.ofNullable(fieldset);
+        this.npcObject = Optional.ofNullable(npc);
+        this.portalObject = Optional.ofNullable(portal);
+        this.questObject = Optional.ofNullable(quest);
+        this.reactorObject = Optional.ofNullable(reactor);
+        this.itemObject = Optional.ofNullable(item);
+        this.userObject = Optional.ofNullable(user);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a builder holding everything in this context, for making a changed copy.
+     */
+    public Builder toBuilder() {
+        var builder = new Builder();
+        builder.server = server;
+        builder.field = field;
+        builder.fieldset = fieldset;
+        builder.npc = npc;
+        builder.portal = portal;
+        builder.quest = quest;
+        builder.reactor = reactor;
+        builder.item = item;
+        builder.user = user;
+        return builder;
+    }
+
+    // =================================================================================================================
+
+    public ServerObject<?> getServer() {
+        return server;
+    }
+
+    public FieldObject<?> getField() {
+        return field;
+    }
+
+    public FieldSetObject<?> getFieldSet() {
+        return fieldset;
+    }
+
+    public NpcObject<?> getNpc() {
+        return npc;
+    }
+
+    public PortalObject<?> getPortal() {
+        return portal;
+    }
+
+    public QuestObject<?> getQuest() {
+        return quest;
+    }
+
+    public ReactorObject<?> getReactor() {
+        return reactor;
+    }
+
+    public InventorySlotObject<?> getInventorySlot() {
+        return item;
+    }
+
+    public UserObject<?> getUser() {
+        return user;
+    }
+
+    // =================================================================================================================
+
+    public Optional<ServerObject<?>> getServerObject() {
+        return serverObject;
+    }
+
+    public Optional<FieldObject<?>> getFieldObject() {
+        return fieldObject;
+    }
+
+    public Optional<FieldSetObject<?>> getFieldSetObject() {
+        return fieldsetObject;
+    }
+
+    public Optional<NpcObject<?>> getNpcObject() {
+        return npcObject;
+    }
+
+    public Optional<PortalObject<?>> getPortalObject() {
+        return portalObject;
+    }
+
+    public Optional<QuestObject<?>> getQuestObject() {
+        return questObject;
+    }
+
+    public Optional<ReactorObject<?>> getReactorObject() {
+        return reactorObject;
+    }
+
+    public Optional<InventorySlotObject<?>> getInventorySlotObject() {
+        return itemObject;
+    }
+
+    public Optional<UserObject<?>> getUserObject() {
+        return userObject;
+    }
+
+    // =================================================================================================================
+
+    public static final class Builder {
+
+        private ServerObject<?> server;
+        private FieldObject<?> field;
+        private FieldSetObject<?> fieldset;
+        private NpcObject<?> npc;
+        private PortalObject<?> portal;
+        private QuestObject<?> quest;
+        private ReactorObject<?> reactor;
+        private InventorySlotObject<?> item;
+        private UserObject<?> user;
+
+        private Builder() { }
+
+        public Builder server(ServerObject<?> server) {
+            this.server = server;
+            return this;
+        }
+
+        public Builder field(FieldObject<?> field) {
+            this.field = field;
+            return this;
+        }
+
+        public Builder fieldset(FieldSetObject<?> fieldset) {
+            this.fieldset = fieldset;
+            return this;
+        }
+
+        public Builder npc(NpcObject<?> npc) {
+            this.npc = npc;
+            return this;
+        }
+
+        public Builder portal(PortalObject<?> portal) {
+            this.portal = portal;
+            return this;
+        }
+
+        public Builder quest(QuestObject<?> quest) {
+            this.quest = quest;
+            return this;
+        }
+
+        public Builder reactor(ReactorObject<?> reactor) {
+            this.reactor = reactor;
+            return this;
+        }
+
+        public Builder item(InventorySlotObject<?> item) {
+            this.item = item;
+            return this;
+        }
+
+        public Builder user(UserObject<?> user) {
+            this.user = user;
+            return this;
+        }
+
+        public ScriptContext build() {
+            return new ScriptContext(this);
+        }
+    }
+}
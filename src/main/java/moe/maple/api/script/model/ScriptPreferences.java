@@ -1,15 +1,20 @@
 package moe.maple.api.script.model;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Created on 8/26/2019.
  */
 public class ScriptPreferences {
 
     private boolean forceOkOnSay, catchExceptions;
+    private Charset charset;
     public static final ScriptPreferences DEFAULT = new ScriptPreferences();
     private ScriptPreferences() {//Defaults go here.
         this.forceOkOnSay = false;
         this.catchExceptions = true;
+        this.charset = StandardCharsets.ISO_8859_1;
     }
 
     public ScriptPreferences catchExceptions(boolean enabled) {
@@ -22,6 +27,11 @@ public class ScriptPreferences {
         return this;
     }
 
+    public ScriptPreferences charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
     /**
      * If {@link #forceOkOnSay} is true, all script 'say' calls will end with 'OK'.
      * Example: Given the pseudo script { say("0", "1", "2").andThen(()=>askMenu("pick", "one")) }
@@ -39,4 +49,12 @@ public class ScriptPreferences {
     public boolean shouldCatchExceptions() {
         return catchExceptions;
     }
+
+    /**
+     * The client's charset, used when text is handed to an encoded messenger like
+     * {@link moe.maple.api.script.model.messenger.say.EncodedSayMessenger}. ISO-8859-1 by default.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
 }
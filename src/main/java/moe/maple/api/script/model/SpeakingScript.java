@@ -27,8 +27,10 @@ import moe.maple.api.script.logic.action.BasicScriptAction;
 import moe.maple.api.script.logic.chain.BasicActionChain;
 import moe.maple.api.script.logic.chain.IntegerActionChain;
 import moe.maple.api.script.logic.chain.StringActionChain;
+import moe.maple.api.script.model.helper.DialogDefinition;
 import moe.maple.api.script.model.helper.Exchange;
 import moe.maple.api.script.model.helper.MenuItem;
+import moe.maple.api.script.model.helper.ScriptMenu;
 import moe.maple.api.script.model.helper.SlideItem;
 import moe.maple.api.script.model.messenger.say.SayMessage;
 import moe.maple.api.script.util.Moematter;
@@ -123,6 +125,10 @@ public interface SpeakingScript extends MessagingScript {
         return ScriptAPI.say(this, messages);
     }
 
+    default BasicActionChain say(DialogDefinition dialog) {
+        return ScriptAPI.say(this, dialog);
+    }
+
     default BasicActionChain say(Integer[] speakers, Tuple<Integer, String>... paramAndMessages) {
         return say(speakers, List.of(paramAndMessages));
     }
@@ -245,6 +251,14 @@ public interface SpeakingScript extends MessagingScript {
         ScriptAPI.askMenu(this, prompt, options);
     }
 
+    default void askMenu(ScriptMenu menu) {
+        ScriptAPI.askMenu(this, menu);
+    }
+
+    default IntegerActionChain askMenu(DialogDefinition dialog) {
+        return ScriptAPI.askMenu(this, dialog);
+    }
+
     // =================================================================================================================
 
     default IntegerActionChain askAvatar(int speakerTemplateId, int param, String prompt, Integer... options) {
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model.helper;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.model.messenger.say.SayMessage;
+import moe.maple.api.script.util.EncodedText;
+import moe.maple.api.script.util.IntSet;
+import moe.maple.api.script.util.builder.MenuMarkup;
+import moe.maple.api.script.util.builder.SayBuilder;
+import moe.maple.api.script.util.builder.ScriptMenuBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A dialog that's built once, usually into a static field, and shown to every user who talks to the npc.
+ * Pages are said first, then the menu if there is one. The answer goes to the script, not the definition,
+ * so nothing in here belongs to a user. Each session only holds a cursor over the shared pages.
+ * The menu is encoded once per charset, on first use, for messengers that take encoded text.
+ *
+ * <pre>
+ *     static final DialogDefinition TAXI = DialogDefinition.builder(1012000)
+ *             .say("Hello, I drive the Regular Cab.")
+ *             .menu("Where to?", "Henesys", "Ellinia", "Perion")
+ *             .build();
+ *
+ *     askMenu(TAXI).andThen(town -> ...);
+ * </pre>
+ */
+public final class DialogDefinition {
+
+    private final int speakerTemplateId;
+    private final List<SayMessage> pages;
+    private final String menuText;
+    private final IntSet menuOptions;
+    private volatile EncodedMenu menuEncoded;
+
+    private DialogDefinition(Builder builder) {
+        this.speakerTemplateId = builder.speakerTemplateId;
+        this.pages = List.copyOf(builder.say.build());
+        this.menuText = builder.menuText;
+        this.menuOptions = builder.menuOptions == null ? null : builder.menuOptions.freeze();
+    }
+
+    /**
+     * @param speakerTemplateId - The npc saying every page and asking the menu.
+     */
+    public static Builder builder(int speakerTemplateId) {
+        return new Builder(speakerTemplateId);
+    }
+
+    public int getSpeakerTemplateId() {
+        return speakerTemplateId;
+    }
+
+    /**
+     * @return the pages said before the menu, immutable and possibly empty.
+     */
+    public List<SayMessage> getPages() {
+        return pages;
+    }
+
+    public boolean hasPages() {
+        return !pages.isEmpty();
+    }
+
+    public boolean hasMenu() {
+        return menuText != null;
+    }
+
+    /**
+     * @return the rendered menu, as it's sent to the client, or null.
+     */
+    public String getMenuText() {
+        return menuText;
+    }
+
+    /**
+     * @return the menu encoded to the client's charset, or null. Read only, and a fresh view each call.
+     * Encoded the first time it's asked for, and again whenever the charset has changed since.
+     */
+    public ByteBuffer getEncodedMenu() {
+        if (menuText == null)
+            return null;
+        var charset = ScriptAPI.INSTANCE.getPreferences().getCharset();
+        var encoded = menuEncoded;
+        if (encoded == null || !encoded.charset.equals(charset))
+            menuEncoded = encoded = new EncodedMenu(charset, EncodedText.encode(menuText, charset).asReadOnlyBuffer());
+        return encoded.text.duplicate();
+    }
+
+    /**
+     * @return the selectable menu indices, read only, or null.
+     */
+    public IntSet getMenuOptions() {
+        return menuOptions;
+    }
+
+    @Override
+    public String toString() {
+        return "DialogDefinition(" + pages.size() + " pages" + (hasMenu() ? ", menu " + menuOptions + ")" : ")");
+    }
+
+    private static final class EncodedMenu {
+        private final Charset charset;
+        private final ByteBuffer text;
+
+        private EncodedMenu(Charset charset, ByteBuffer text) {
+            this.charset = charset;
+            this.text = text;
+        }
+    }
+
+    // =================================================================================================================
+
+    public static final class Builder {
+
+        private final int speakerTemplateId;
+        private final SayBuilder say;
+        private String menuText;
+        private IntSet menuOptions;
+
+        private Builder(int speakerTemplateId) {
+            this.speakerTemplateId = speakerTemplateId;
+            this.say = new SayBuilder(speakerTemplateId, -1); // No user here, asUser isn't usable.
+        }
+
+        public Builder say(String... messages) {
+            say.say(messages);
+            return this;
+        }
+
+        public Builder next(String... messages) {
+            say.next(messages);
+            return this;
+        }
+
+        public Builder ok(String... messages) {
+            say.ok(messages);
+            return this;
+        }
+
+        /**
+         * Adds pages built elsewhere, after anything already added.
+         */
+        public Builder pages(Collection<SayMessage> messages) {
+            say.add(messages);
+            return this;
+        }
+
+        /**
+         * Renders the menu the same way {@link moe.maple.api.script.logic.ScriptAPI#askMenu(moe.maple.api.script.model.MoeScript, String, Collection)} does.
+         */
+        public Builder menu(String prompt, Collection<String> items) {
+            var builder = new ScriptMenuBuilder<>();
+            builder.append(prompt).newLine().blue().appendMenu(items);
+            var options = builder.getMenuIndices();
+            options.addAll(MenuMarkup.scan(prompt).indices());
+            this.menuText = builder.build();
+            this.menuOptions = options;
+            return this;
+        }
+
+        public Builder menu(String prompt, String... items) {
+            return menu(prompt, List.of(items));
+        }
+
+        public DialogDefinition build() {
+            if (say.build().isEmpty() && menuText == null)
+                throw new IllegalStateException("A dialog needs a page or a menu.");
+            return new DialogDefinition(this);
+        }
+    }
+}
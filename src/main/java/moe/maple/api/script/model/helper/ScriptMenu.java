@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model.helper;
+
+import moe.maple.api.script.logic.action.ObjectScriptAction;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.IntSet;
+import moe.maple.api.script.util.builder.ScriptStringBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A menu that's rendered once and can be shown to any number of users.
+ * Keep it in a static field, nothing in here changes after it's built.
+ * Actions are handed the script that answered, so they don't need to capture one:
+ * <pre>
+ *     static final ScriptMenu TOWNS = ScriptMenu.builder("Where to?")
+ *             .item("Henesys", script -> script.getUserObject().ifPresent(user -> user.transferField(100000000)))
+ *             .item("Ellinia", script -> script.getUserObject().ifPresent(user -> user.transferField(101000000)))
+ *             .build();
+ * </pre>
+ *
+ * Options are looked up by array index, slide menus with scattered indices fall back to a sorted search.
+ * If an index is used twice, the last item's action is the one that runs.
+ */
+public final class ScriptMenu {
+
+    private final int messageType;
+    private final String text;
+    private final IntSet options;
+
+    // Exactly one of these is used, dense when the options are small and close together.
+    private final ObjectScriptAction<MoeScript>[] dense;
+    private final int[] keys;
+    private final ObjectScriptAction<MoeScript>[] values;
+
+    private ScriptMenu(int messageType, String text, int[] keys, ObjectScriptAction<MoeScript>[] values) {
+        this.messageType = messageType;
+        this.text = text;
+        sort(keys, values);
+        var options = new IntSet();
+        var max = -1;
+        var dense = true;
+        var unique = 0;
+        for (var i = 0; i < keys.length; i++) {
+            var key = keys[i];
+            options.add(key);
+            dense &= key >= 0;
+            max = Math.max(max, key);
+            // Duplicates sit next to each other after the sort, the later one replaces the earlier.
+            if (unique > 0 && keys[unique - 1] == key)
+                unique--;
+            keys[unique] = key;
+            values[unique] = values[i];
+            unique++;
+        }
+        this.options = options.freeze();
+        if (dense && max < Math.max(32, unique * 4)) {
+            this.dense = actions(max + 1);
+            for (var i = 0; i < unique; i++)
+                this.dense[keys[i]] = values[i];
+            this.keys = null;
+            this.values = null;
+        } else {
+            this.dense = null;
+            this.keys = Arrays.copyOf(keys, unique);
+            this.values = Arrays.copyOf(values, unique);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectScriptAction<MoeScript>[] actions(int length) {
+        return (ObjectScriptAction<MoeScript>[]) new ObjectScriptAction[length];
+    }
+
+    // Insertion sort, menus are short and usually in order already. Stable, so duplicates keep the order they were added in.
+    private static void sort(int[] keys, ObjectScriptAction<MoeScript>[] values) {
+        for (var i = 1; i < keys.length; i++) {
+            var key = keys[i];
+            var value = values[i];
+            var j = i - 1;
+            while (j >= 0 && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * An askMenu, see {@link Builder}.
+     */
+    public static Builder builder(String prompt) {
+        return new Builder(ScriptMessageType.ASKMENU, prompt);
+    }
+
+    /**
+     * An askSlideMenu, see {@link Builder}.
+     */
+    public static Builder slideBuilder() {
+        return new Builder(ScriptMessageType.ASKSLIDEMENU, null);
+    }
+
+    /**
+     * An askMenu, items are numbered from 0 in the order given.
+     * The actions can't see the script, so menus built from these belong to the script that made them.
+     */
+    public static ScriptMenu of(String prompt, List<MenuItem> items) {
+        var builder = builder(prompt);
+        for (var item : items) {
+            var action = item.action();
+            builder.item(item.message(), script -> action.act());
+        }
+        return builder.build();
+    }
+
+    public static ScriptMenu of(String prompt, MenuItem... items) {
+        return of(prompt, List.of(items));
+    }
+
+    /**
+     * An askSlideMenu, items keep their own {@link SlideItem#index()}.
+     * The actions can't see the script, so menus built from these belong to the script that made them.
+     */
+    public static ScriptMenu slide(List<SlideItem> items) {
+        var builder = slideBuilder();
+        for (var item : items) {
+            var action = item.action();
+            builder.item(item.index(), item.message(), script -> action.act());
+        }
+        return builder.build();
+    }
+
+    public static ScriptMenu slide(SlideItem... items) {
+        return slide(List.of(items));
+    }
+
+    /**
+     * @return {@link ScriptMessageType#ASKMENU} or {@link ScriptMessageType#ASKSLIDEMENU}
+     */
+    public int getMessageType() {
+        return messageType;
+    }
+
+    /**
+     * @return the rendered menu, as it's sent to the client.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return every selectable option, read only.
+     */
+    public IntSet getOptions() {
+        return options;
+    }
+
+    public boolean contains(int option) {
+        return options.contains(option);
+    }
+
+    /**
+     * @return the action for <code>option</code>, or null if there isn't one.
+     */
+    public ObjectScriptAction<MoeScript> getAction(int option) {
+        if (dense != null)
+            return option >= 0 && option < dense.length ? dense[option] : null;
+        var slot = Arrays.binarySearch(keys, option);
+        return slot < 0 ? null : values[slot];
+    }
+
+    public int size() {
+        return options.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptMenu" + options;
+    }
+
+    // =================================================================================================================
+
+    public static final class Builder {
+
+        private final int messageType;
+        private final ScriptStringBuilder ssb;
+        private int[] keys = new int[8];
+        private ObjectScriptAction<MoeScript>[] values = actions(8);
+        private int count;
+
+        private Builder(int messageType, String prompt) {
+            this.messageType = messageType;
+            this.ssb = new ScriptStringBuilder();
+            if (prompt != null)
+                ssb.append(prompt).blue().newLine();
+        }
+
+        /**
+         * Adds an item numbered after the ones before it, starting at 0.
+         */
+        public Builder item(String message, ObjectScriptAction<MoeScript> action) {
+            return item(count, message, action);
+        }
+
+        public Builder item(int index, String message, ObjectScriptAction<MoeScript> action) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            keys[count] = index;
+            values[count] = action;
+            count++;
+            if (messageType == ScriptMessageType.ASKSLIDEMENU)
+                ssb.appendf("#{}# {}", index, message);
+            else
+                ssb.appendMenuItemLine(index, message);
+            return this;
+        }
+
+        public ScriptMenu build() {
+            return new ScriptMenu(messageType, ssb.toString(), Arrays.copyOf(keys, count), Arrays.copyOf(values, count));
+        }
+    }
+}
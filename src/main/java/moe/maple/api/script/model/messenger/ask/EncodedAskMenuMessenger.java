@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model.messenger.ask;
+
+import moe.maple.api.script.util.EncodedText;
+import moe.maple.api.script.model.object.user.UserObject;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link AskMenuMessenger} that takes text already encoded to the client's charset.
+ * Menus built with a {@link moe.maple.api.script.util.builder.ScriptMenuBuilder} are encoded straight from the builder.
+ * The buffer may be shared, read it without changing its position, or use a duplicate.
+ */
+@FunctionalInterface
+public interface EncodedAskMenuMessenger<User> extends AskMenuMessenger<User> {
+    void send(UserObject<User> userObject, int speakerType, int speakerTemplateId, int param, ByteBuffer message);
+
+    @Override
+    default void send(UserObject<User> userObject, int speakerType, int speakerTemplateId, int param, String message) {
+        send(userObject, speakerType, speakerTemplateId, param, EncodedText.encode(message));
+    }
+}
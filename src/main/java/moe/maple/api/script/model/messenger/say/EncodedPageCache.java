@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model.messenger.say;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.util.EncodedText;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the encoded text of say pages, so a page that's shown to every user is only encoded once.
+ * Pages are keyed by their text and charset, not by the {@link SayMessage}. Scripts build a fresh message
+ * every time they say something, the text is what's shared between users.
+ *
+ * Bounded by page count and by total bytes, the least recently used page goes first.
+ */
+public final class EncodedPageCache {
+
+    private static final EncodedPageCache shared = new EncodedPageCache(1024, 1 << 20);
+
+    private final int maxPages;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> pages;
+    private long bytes;
+    private long hits, misses, evictions;
+
+    /**
+     * @param maxPages - How many pages are kept at most.
+     * @param maxBytes - How many encoded bytes are kept at most, pages bigger than this aren't cached.
+     */
+    public EncodedPageCache(int maxPages, long maxBytes) {
+        if (maxPages < 1 || maxBytes < 1)
+            throw new IllegalArgumentException("Cache limits must be positive.");
+        this.maxPages = maxPages;
+        this.maxBytes = maxBytes;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the cache used by {@link SayMessage#onMessage}.
+     */
+    public static EncodedPageCache shared() {
+        return shared;
+    }
+
+    public ByteBuffer get(SayMessage page) {
+        return get(page.getMessage(), ScriptAPI.INSTANCE.getPreferences().getCharset());
+    }
+
+    public ByteBuffer get(SayMessage page, Charset charset) {
+        return get(page.getMessage(), charset);
+    }
+
+    /**
+     * @return <code>text</code> in <code>charset</code>, as a read only buffer the caller may move around in.
+     */
+    public ByteBuffer get(String text, Charset charset) {
+        synchronized (this) {
+            var entry = pages.get(text);
+            if (entry != null && entry.charset.equals(charset)) {
+                hits++;
+                return entry.text.duplicate();
+            }
+            misses++;
+        }
+        // Encoding happens outside the lock, two threads missing the same page both encode it.
+        // A page in another charset replaces the old one, there's only ever one charset in use.
+        var encoded = EncodedText.encode(text, charset).asReadOnlyBuffer();
+        if (encoded.remaining() <= maxBytes) {
+            synchronized (this) {
+                var old = pages.put(text, new Entry(charset, encoded));
+                if (old != null)
+                    bytes -= old.text.remaining();
+                bytes += encoded.remaining();
+                evict();
+            }
+        }
+        return encoded.duplicate();
+    }
+
+    private void evict() {
+        var it = pages.entrySet().iterator();
+        while (it.hasNext() && (pages.size() > maxPages || bytes > maxBytes)) {
+            Map.Entry<String, Entry> eldest = it.next();
+            bytes -= eldest.getValue().text.remaining();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        pages.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    /**
+     * @return how many encoded bytes are held.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "EncodedPageCache(" + pages.size() + " pages, " + bytes + " bytes, " + hits + " hits, " + misses + " misses, " + evictions + " evictions)";
+    }
+
+    private static final class Entry {
+        private final Charset charset;
+        private final ByteBuffer text;
+
+        private Entry(Charset charset, ByteBuffer text) {
+            this.charset = charset;
+            this.text = text;
+        }
+    }
+}
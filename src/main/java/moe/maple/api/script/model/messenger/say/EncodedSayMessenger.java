@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.model.messenger.say;
+
+import moe.maple.api.script.util.EncodedText;
+import moe.maple.api.script.model.object.user.UserObject;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link SayMessenger} that takes text already encoded to the client's charset.
+ * Text that's only a String is encoded with {@link EncodedText} before it gets here,
+ * say pages come from the {@link EncodedPageCache}.
+ * The buffer may be shared, read it without changing its position, or use a duplicate.
+ */
+@FunctionalInterface
+public interface EncodedSayMessenger<User> extends SayMessenger<User> {
+    void send(UserObject<User> userObject, int speakerType, int speakerTemplateId, int replaceTemplateId, int param, ByteBuffer message, boolean previous, boolean next);
+
+    default void send(UserObject<User> userObject, int speakerTemplateId, int replaceTemplateId, int param, ByteBuffer message, boolean previous, boolean next) {
+        send(userObject, 0, speakerTemplateId, replaceTemplateId, param, message, previous, next);
+    }
+
+    @Override
+    default void send(UserObject<User> userObject, int speakerType, int speakerTemplateId, int replaceTemplateId, int param, String message, boolean previous, boolean next) {
+        send(userObject, speakerType, speakerTemplateId, replaceTemplateId, param, EncodedText.encode(message), previous, next);
+    }
+}
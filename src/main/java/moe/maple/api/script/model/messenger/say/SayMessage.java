@@ -55,6 +55,9 @@ public class SayMessage {
     }
 
     public void onMessage(SayMessenger messenger, UserObject userObject, boolean prev, boolean next) {
-        messenger.send(userObject, speakerTemplate, replaceTemplate, parameters,  message, prev, next);
+        if (messenger instanceof EncodedSayMessenger)
+            ((EncodedSayMessenger) messenger).send(userObject, speakerTemplate, replaceTemplate, parameters, EncodedPageCache.shared().get(this), prev, next);
+        else
+            messenger.send(userObject, speakerTemplate, replaceTemplate, parameters,  message, prev, next);
     }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.registry;
+
+import moe.maple.api.script.model.MoeScript;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates new script instances.
+ * The generated {@link ScriptIndex} binds one of these to each script as a constructor reference,
+ * so creating a script is a plain <code>new</code> which the JIT can inline like any other call.
+ */
+@FunctionalInterface
+public interface ScriptFactory {
+
+    MoeScript create();
+
+    /**
+     * Binds a factory to the public no-argument constructor of <code>type</code>, for scripts that
+     * weren't seen by the annotation processor. The constructor is looked up once, here,
+     * and the returned factory is a generated lambda rather than a reflective call.
+     *
+     * If the script's package isn't open to this module, the lambda can't be generated and the factory
+     * calls a constructor handle instead. That handle isn't a constant to the JIT, so those factories
+     * cost about as much as a reflective call.
+     * @throws IllegalArgumentException if the script is abstract, or has no public no-argument constructor
+     */
+    static ScriptFactory of(Class<? extends MoeScript> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()))
+            throw new IllegalArgumentException("Abstract scripts can't be created: " + type.getName());
+        try {
+            type.getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Script has no public no-argument constructor: " + type.getName(), e);
+        }
+        var self = ScriptFactory.class.getModule();
+        if (!self.canRead(type.getModule()))
+            self.addReads(type.getModule());
+        try {
+            var lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            var constructor = lookup.findConstructor(type, MethodType.methodType(void.class));
+            var site = LambdaMetafactory.metafactory(lookup, "create",
+                    MethodType.methodType(ScriptFactory.class),
+                    MethodType.methodType(MoeScript.class),
+                    constructor, MethodType.methodType(type));
+            return (ScriptFactory) site.getTarget().invokeExact();
+        } catch (IllegalAccessException e) {
+            // The script's package isn't open to us, a public constructor handle is the next best thing.
+            // It's slower, the handle is a captured field rather than a constant the JIT can inline.
+            return ofHandle(type);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Script has no public no-argument constructor: " + type.getName(), e);
+        } catch (Throwable t) {
+            throw new IllegalArgumentException("Unable to bind a factory for " + type.getName(), t);
+        }
+    }
+
+    private static ScriptFactory ofHandle(Class<? extends MoeScript> type) {
+        try {
+            var constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(MoeScript.class));
+            return () -> {
+                try {
+                    return (MoeScript) constructor.invokeExact();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Unable to create " + type.getName(), t);
+                }
+            };
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Script has no public no-argument constructor: " + type.getName(), e);
+        }
+    }
+}
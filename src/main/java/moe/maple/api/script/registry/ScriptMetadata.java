@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.registry;
+
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.Script;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Everything a {@link Script} annotation says about a script class,
+ * plus a way to construct it. Instances are shared, and nothing in them changes after construction
+ * except the factory of metadata read from an annotation, which is bound once, on first use.
+ */
+public final class ScriptMetadata {
+
+    // Lives on the class itself, so it doesn't keep unloaded scripts around.
+    private static final ClassValue<ScriptMetadata> metadata = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected ScriptMetadata computeValue(Class<?> type) {
+            return read((Class<? extends MoeScript>) type);
+        }
+    };
+
+    private final Class<? extends MoeScript> type;
+    private volatile ScriptFactory factory;
+    private volatile boolean bound;
+    private final String name;
+    private final List<String> names;
+    private final String author;
+    private final String description;
+    private final int[] fields;
+
+    public ScriptMetadata(Class<? extends MoeScript> type, ScriptFactory factory,
+                          String[] names, String author, String description, int[] fields) {
+        this(type, names, author, description, fields);
+        this.factory = factory;
+        this.bound = true;
+    }
+
+    // The factory is bound on first use, most classes asked about are never created this way.
+    private ScriptMetadata(Class<? extends MoeScript> type, String[] names, String author, String description, int[] fields) {
+        this.type = Objects.requireNonNull(type);
+        this.names = List.of(names);
+        this.name = names.length == 0 ? "Unnamed Script: " + type.getName() : names[0];
+        this.author = author;
+        this.description = description;
+        this.fields = fields.clone();
+    }
+
+    public Class<? extends MoeScript> type() {
+        return type;
+    }
+
+    /**
+     * @return the first name in {@link Script#name()}
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return every name and alias in {@link Script#name()}
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    public String author() {
+        return author;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    /**
+     * @return a copy of {@link Script#field()}
+     */
+    public int[] fields() {
+        return fields.clone();
+    }
+
+    int fieldCount() {
+        return fields.length;
+    }
+
+    int field(int index) {
+        return fields[index];
+    }
+
+    /**
+     * Reads the {@link Script} annotation on <code>type</code> and binds a factory with {@link ScriptFactory#of(Class)}.
+     * Prefer the generated index, this is for scripts loaded after compile time.
+     * @throws IllegalArgumentException if a factory can't be bound
+     */
+    public static ScriptMetadata of(Class<? extends MoeScript> type) {
+        var cached = get(type);
+        if (cached.factory() == null)
+            ScriptFactory.of(type); // Throws with the reason.
+        return cached;
+    }
+
+    /**
+     * The metadata for <code>type</code>, read once per class and shared after that. Never throws,
+     * scripts that can't be created, like local classes, get metadata without a {@link #factory()}.
+     * This is always the annotation, entries from a generated index are only in the {@link ScriptRegistry} they were added to.
+     * See {@link MoeScript#metadata()}
+     */
+    public static ScriptMetadata get(Class<? extends MoeScript> type) {
+        return metadata.get(type);
+    }
+
+    private static ScriptMetadata read(Class<? extends MoeScript> type) {
+        var script = type.getAnnotation(Script.class);
+        if (script == null)
+            return new ScriptMetadata(type, new String[0], "", "", new int[] { 0 });
+        return new ScriptMetadata(type, script.name(), script.author(), script.description(), script.field());
+    }
+
+    /**
+     * @return the factory, or null if the script can't be created.
+     */
+    public ScriptFactory factory() {
+        if (!bound)
+            bind();
+        return factory;
+    }
+
+    private synchronized void bind() {
+        if (bound)
+            return;
+        try {
+            factory = ScriptFactory.of(type);
+        } catch (IllegalArgumentException e) {
+            factory = null; // Local, abstract or otherwise not creatable, the rest still applies.
+        }
+        bound = true;
+    }
+
+    /**
+     * @return a new instance of the script.
+     * @throws IllegalStateException if this metadata has no factory
+     */
+    public MoeScript create() {
+        var factory = factory();
+        if (factory == null)
+            throw new IllegalStateException("No factory for " + type.getName());
+        return factory.create();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type.getName() + ")";
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.registry;
+
+import moe.maple.api.script.model.MoeScript;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.*;
+
+/**
+ * A bounded pool of recycled scripts of a single class.
+ * Scripts are handed out with {@link #acquire()} and given back with {@link #release(MoeScript)},
+ * which calls {@link MoeScript#recycle()}. Once the pool is full, released scripts are left to the GC.
+ *
+ * Every n-th acquired script is tracked, and if it's collected without being released a leak is logged,
+ * along with where it was acquired. Tracking costs a stack trace, so keep the sample rate low in production.
+ */
+public final class ScriptPool {
+
+    private static final Logger log = LoggerFactory.getLogger( ScriptPool.class );
+
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final int DEFAULT_LEAK_SAMPLING = 128;
+
+    private final ScriptFactory factory;
+    private final MoeScript[] free;
+    private final int leakSampling;
+    private int size;
+
+    private final ReferenceQueue<MoeScript> queue = new ReferenceQueue<>();
+    private final Map<MoeScript, Tracker> tracked = new WeakHashMap<>();
+    private final Set<Tracker> trackers = new HashSet<>();
+    private int untilSample;
+
+    private long created;
+    private long reused;
+    private long leaks;
+
+    public ScriptPool(ScriptFactory factory) {
+        this(factory, DEFAULT_CAPACITY, DEFAULT_LEAK_SAMPLING);
+    }
+
+    /**
+     * @param capacity     - The most scripts kept around waiting to be reused.
+     * @param leakSampling - Track one in <code>leakSampling</code> acquired scripts for leaks, 0 disables tracking.
+     */
+    public ScriptPool(ScriptFactory factory, int capacity, int leakSampling) {
+        if (capacity < 0 || leakSampling < 0)
+            throw new IllegalArgumentException("Capacity and sampling can't be negative.");
+        this.factory = Objects.requireNonNull(factory);
+        this.free = new MoeScript[capacity];
+        this.leakSampling = leakSampling;
+        this.untilSample = leakSampling;
+    }
+
+    /**
+     * @return a recycled script, or a new one if the pool is empty.
+     */
+    public synchronized MoeScript acquire() {
+        pollLeaks();
+        MoeScript script;
+        if (size > 0) {
+            script = free[--size];
+            free[size] = null;
+            reused++;
+        } else {
+            script = factory.create();
+            created++;
+        }
+        if (!script.markAcquired())
+            log.warn("A script({}) in the pool was already handed out.", script.getClass().getName());
+        if (leakSampling > 0 && --untilSample <= 0) {
+            untilSample = leakSampling;
+            var tracker = new Tracker(script, queue);
+            tracked.put(script, tracker);
+            trackers.add(tracker);
+        }
+        return script;
+    }
+
+    /**
+     * Recycles the script and keeps it for the next {@link #acquire()}, if there's room.
+     * A script must not be used after it's released. Releasing a script that's already been released is ignored,
+     * otherwise two users would be handed the same instance.
+     */
+    public void release(MoeScript script) {
+        release(script, script.getPoolGeneration());
+    }
+
+    /**
+     * Same as {@link #release(MoeScript)}, but only if the script is still in the
+     * {@link MoeScript#getPoolGeneration() generation} it was acquired in. Use this when the reference may outlive
+     * the session, a late release then can't recycle the script after someone else acquired it.
+     */
+    public void release(MoeScript script, int generation) {
+        if (!script.markReleased(generation)) {
+            log.warn("A script({}) was released twice, ignoring.", script.getClass().getName());
+            return;
+        }
+        script.recycle();
+        synchronized (this) {
+            var tracker = tracked.remove(script);
+            if (tracker != null) {
+                trackers.remove(tracker);
+                tracker.clear();
+            }
+            if (size < free.length)
+                free[size++] = script;
+        }
+    }
+
+    private void pollLeaks() {
+        Tracker leaked;
+        while ((leaked = (Tracker) queue.poll()) != null) {
+            if (trackers.remove(leaked)) {
+                leaks++;
+                log.warn("A script({}) was never released to its pool before being collected.", leaked.name, leaked.acquired);
+            }
+        }
+    }
+
+    // =================================================================================================================
+
+    /**
+     * @return scripts waiting to be reused.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return free.length;
+    }
+
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    public synchronized long getReused() {
+        return reused;
+    }
+
+    /**
+     * Only counts sampled scripts, and only once the GC gets to them.
+     */
+    public synchronized long getLeaks() {
+        return leaks;
+    }
+
+    // =================================================================================================================
+
+    private static final class Tracker extends PhantomReference<MoeScript> {
+
+        private final String name;
+        private final Throwable acquired;
+
+        private Tracker(MoeScript script, ReferenceQueue<MoeScript> queue) {
+            super(script, queue);
+            this.name = script.getClass().getName();
+            this.acquired = new Throwable("Acquired here");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.registry;
+
+import moe.maple.api.script.model.MoeScript;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link ScriptPool} per script class, created as they're needed from a {@link ScriptRegistry}.
+ */
+public final class ScriptPools {
+
+    private final ScriptRegistry registry;
+    private final int capacity;
+    private final int leakSampling;
+    private final Map<Class<?>, ScriptPool> pools = new ConcurrentHashMap<>();
+
+    public ScriptPools(ScriptRegistry registry) {
+        this(registry, ScriptPool.DEFAULT_CAPACITY, ScriptPool.DEFAULT_LEAK_SAMPLING);
+    }
+
+    /**
+     * See {@link ScriptPool#ScriptPool(ScriptFactory, int, int)}, the settings apply to each pool.
+     */
+    public ScriptPools(ScriptRegistry registry, int capacity, int leakSampling) {
+        this.registry = registry;
+        this.capacity = capacity;
+        this.leakSampling = leakSampling;
+    }
+
+    /**
+     * Acquires a script registered to <code>name</code> and sets it as the expected name.
+     * @return the script, or empty if nothing is registered to the name.
+     */
+    public Optional<MoeScript> acquire(String name) {
+        var metadata = registry.get(name);
+        if (metadata.isEmpty())
+            return Optional.empty();
+        var script = pool(metadata.get()).acquire();
+        script.setExpected(name);
+        return Optional.of(script);
+    }
+
+    /**
+     * Gives a script back to its pool. Scripts that didn't come from a registered class are ignored.
+     */
+    public void release(MoeScript script) {
+        var pool = pools.get(script.getClass());
+        if (pool != null)
+            pool.release(script);
+    }
+
+    public Optional<ScriptPool> get(Class<? extends MoeScript> type) {
+        return Optional.ofNullable(pools.get(type));
+    }
+
+    private ScriptPool pool(ScriptMetadata metadata) {
+        var pool = pools.get(metadata.type());
+        if (pool == null)
+            pool = pools.computeIfAbsent(metadata.type(), t -> new ScriptPool(metadata.factory(), capacity, leakSampling));
+        return pool;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.registry;
+
+import moe.maple.api.script.model.MoeScript;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * An immutable lookup of scripts by name, field and class.
+ * Built from the generated {@link ScriptIndex}es, so nothing is scanned or reflected at startup.
+ */
+public final class ScriptRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger( ScriptRegistry.class );
+
+    private final List<ScriptMetadata> scripts;
+    private final Map<String, ScriptMetadata> byName;
+    private final Map<Integer, List<ScriptMetadata>> byField;
+    private final Map<Class<?>, ScriptMetadata> byType;
+
+    private ScriptRegistry(Builder builder) {
+        this.scripts = List.copyOf(builder.scripts);
+        this.byName = Map.copyOf(builder.byName);
+        this.byType = Map.copyOf(builder.byType);
+        var fields = new HashMap<Integer, List<ScriptMetadata>>(builder.byField.size());
+        builder.byField.forEach((field, list) -> fields.put(field, List.copyOf(list)));
+        this.byField = Map.copyOf(fields);
+    }
+
+    /**
+     * Loads every {@link ScriptIndex} visible to the context class loader.
+     */
+    public static ScriptRegistry load() {
+        return load(Thread.currentThread().getContextClassLoader());
+    }
+
+    public static ScriptRegistry load(ClassLoader loader) {
+        var builder = builder();
+        for (var index : ServiceLoader.load(ScriptIndex.class, loader)) {
+            log.debug("Loading script index: {}", index.getClass().getName());
+            index.register(builder);
+        }
+        var registry = builder.build();
+        log.debug("Loaded {} scripts.", registry.size());
+        return registry;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // =================================================================================================================
+
+    public Optional<ScriptMetadata> get(String name) {
+        return Optional.ofNullable(byName.get(name));
+    }
+
+    public Optional<ScriptMetadata> get(Class<?> type) {
+        return Optional.ofNullable(byType.get(type));
+    }
+
+    /**
+     * Scripts that don't set {@link moe.maple.api.script.model.Script#field()} are listed under 0, the default.
+     * @return every script located in the field, never null.
+     */
+    public List<ScriptMetadata> getByField(int fieldId) {
+        return byField.getOrDefault(fieldId, List.of());
+    }
+
+    /**
+     * Creates the script registered to <code>name</code> and sets it as the expected name.
+     */
+    public Optional<MoeScript> create(String name) {
+        var metadata = byName.get(name);
+        if (metadata == null)
+            return Optional.empty();
+        var script = metadata.create();
+        script.setExpected(name);
+        return Optional.of(script);
+    }
+
+    public boolean contains(String name) {
+        return byName.containsKey(name);
+    }
+
+    public List<ScriptMetadata> all() {
+        return scripts;
+    }
+
+    public int size() {
+        return scripts.size();
+    }
+
+    // =================================================================================================================
+
+    public static final class Builder {
+
+        private final List<ScriptMetadata> scripts = new ArrayList<>();
+        private final Map<String, ScriptMetadata> byName = new HashMap<>();
+        private final Map<Integer, List<ScriptMetadata>> byField = new HashMap<>();
+        private final Map<Class<?>, ScriptMetadata> byType = new HashMap<>();
+
+        private Builder() { }
+
+        public Builder add(ScriptMetadata metadata) {
+            if (byType.putIfAbsent(metadata.type(), metadata) != null) {
+                log.warn("Script class registered twice, ignoring: {}", metadata.type().getName());
+                return this;
+            }
+            scripts.add(metadata);
+            for (var name : metadata.names()) {
+                if (name.isEmpty())
+                    continue;
+                var existing = byName.putIfAbsent(name, metadata);
+                if (existing != null)
+                    log.warn("Script name \"{}\" is used by both {} and {}, keeping the first.", name, existing.type().getName(), metadata.type().getName());
+            }
+            for (var i = 0; i < metadata.fieldCount(); i++) {
+                byField.computeIfAbsent(metadata.field(i), f -> new ArrayList<>()).add(metadata);
+            }
+            return this;
+        }
+
+        /**
+         * Registers a script that wasn't part of a generated index, see {@link ScriptMetadata#of(Class)}.
+         */
+        public Builder add(Class<? extends MoeScript> type) {
+            return add(ScriptMetadata.of(type));
+        }
+
+        public ScriptRegistry build() {
+            return new ScriptRegistry(this);
+        }
+    }
+}
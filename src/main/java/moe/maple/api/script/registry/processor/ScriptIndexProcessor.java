@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.registry.processor;
+
+import moe.maple.api.script.model.Script;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+
+/**
+ * Writes a {@link moe.maple.api.script.registry.ScriptIndex} for every class annotated with {@link Script},
+ * and registers it as a service so {@link moe.maple.api.script.registry.ScriptRegistry#load()} can find it.
+ *
+ * The generated class name can be changed with <code>-Amoe.script.index=your.package.YourIndex</code>,
+ * which you'll want if more than one jar of scripts ends up on the same class path.
+ */
+@SupportedAnnotationTypes(ScriptIndexProcessor.SCRIPT_ANNOTATION)
+@SupportedOptions(ScriptIndexProcessor.OPTION_INDEX)
+public class ScriptIndexProcessor extends AbstractProcessor {
+
+    static final String SCRIPT_ANNOTATION = "moe.maple.api.script.model.Script";
+    static final String MOE_SCRIPT = "moe.maple.api.script.model.MoeScript";
+    static final String SCRIPT_INDEX = "moe.maple.api.script.registry.ScriptIndex";
+
+    public static final String OPTION_INDEX = "moe.script.index";
+    public static final String DEFAULT_INDEX = "moe.maple.scripts.generated.GeneratedScriptIndex";
+
+    // Keeps each generated method well under the 64kb method limit.
+    private static final int SCRIPTS_PER_METHOD = 200;
+
+    private final Map<String, TypeElement> scripts = new LinkedHashMap<>();
+    private boolean written;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Every hand written source shows up in the first round, so the index is written as soon as scripts are found.
+     * Writing it in the last round would work too, but javac warns about that on every build.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        var moeScript = processingEnv.getElementUtils().getTypeElement(MOE_SCRIPT);
+        if (round.processingOver() || moeScript == null)
+            return false;
+        for (var type : ElementFilter.typesIn(round.getElementsAnnotatedWith(Script.class))) {
+            if (written)
+                warn(type, "Script was generated after the index was written, it won't be indexed.");
+            else if (isIndexable(type, moeScript.asType()))
+                scripts.put(type.getQualifiedName().toString(), type);
+        }
+        if (!scripts.isEmpty() && !written) {
+            written = true;
+            write();
+        }
+        return false;
+    }
+
+    private boolean isIndexable(TypeElement type, TypeMirror moeScript) {
+        var types = processingEnv.getTypeUtils();
+        if (!types.isAssignable(types.erasure(type.asType()), types.erasure(moeScript))) {
+            error(type, "@Script can only be used on a MoeScript.");
+            return false;
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            warn(type, "Skipping abstract script, it can't be created.");
+            return false;
+        }
+        if (!isPublic(type)) {
+            warn(type, "Skipping script, it needs to be public (and static, if nested) to be indexed.");
+            return false;
+        }
+        var constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        var creatable = constructors.stream().anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+        if (!creatable) {
+            warn(type, "Skipping script, it needs a public no-argument constructor to be indexed.");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isPublic(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            var current = (TypeElement) element;
+            if (!current.getModifiers().contains(Modifier.PUBLIC))
+                return false;
+            if (current.getNestingKind() == NestingKind.MEMBER && !current.getModifiers().contains(Modifier.STATIC))
+                return false;
+            if (current.getNestingKind() == NestingKind.LOCAL || current.getNestingKind() == NestingKind.ANONYMOUS)
+                return false;
+            element = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    // =================================================================================================================
+
+    private void write() {
+        var index = processingEnv.getOptions().getOrDefault(OPTION_INDEX, DEFAULT_INDEX);
+        var split = index.lastIndexOf('.');
+        var packageName = split < 0 ? "" : index.substring(0, split);
+        var simpleName = index.substring(split + 1);
+        var originating = scripts.values().toArray(new Element[0]);
+        var filer = processingEnv.getFiler();
+
+        try (var out = new PrintWriter(filer.createSourceFile(index, originating).openWriter())) {
+            writeIndex(out, packageName, simpleName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Couldn't write script index " + index + ": " + e.getMessage());
+            return;
+        }
+
+        try (var out = new PrintWriter(filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + SCRIPT_INDEX, originating).openWriter())) {
+            out.println(index);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Couldn't register script index " + index + ": " + e.getMessage());
+        }
+    }
+
+    private void writeIndex(PrintWriter out, String packageName, String simpleName) {
+        var elements = processingEnv.getElementUtils();
+        var entries = new ArrayList<>(scripts.values());
+        var methods = (entries.size() + SCRIPTS_PER_METHOD - 1) / SCRIPTS_PER_METHOD;
+
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("@javax.annotation.processing.Generated(\"" + ScriptIndexProcessor.class.getName() + "\")");
+        out.println("public final class " + simpleName + " implements " + SCRIPT_INDEX + " {");
+        out.println();
+        out.println("    @Override");
+        out.println("    public void register(moe.maple.api.script.registry.ScriptRegistry.Builder registry) {");
+        for (var m = 0; m < methods; m++)
+            out.println("        register" + m + "(registry);");
+        out.println("    }");
+
+        for (var m = 0; m < methods; m++) {
+            out.println();
+            out.println("    private static void register" + m + "(moe.maple.api.script.registry.ScriptRegistry.Builder registry) {");
+            var end = Math.min(entries.size(), (m + 1) * SCRIPTS_PER_METHOD);
+            for (var i = m * SCRIPTS_PER_METHOD; i < end; i++) {
+                var type = entries.get(i);
+                var name = type.getQualifiedName().toString();
+                var script = type.getAnnotation(Script.class);
+
+                var names = new StringJoiner(", ", "new String[] { ", " }");
+                for (var n : script.name())
+                    names.add(elements.getConstantExpression(n));
+                var fields = new StringJoiner(", ", "new int[] { ", " }");
+                for (var f : script.field())
+                    fields.add(Integer.toString(f));
+
+                out.println("        registry.add(new moe.maple.api.script.registry.ScriptMetadata(" + name + ".class, " + name + "::new, "
+                        + names + ", "
+                        + elements.getConstantExpression(script.author()) + ", "
+                        + elements.getConstantExpression(script.description()) + ", "
+                        + fields + "));");
+            }
+            out.println("    }");
+        }
+        out.println("}");
+    }
+
+    private void warn(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
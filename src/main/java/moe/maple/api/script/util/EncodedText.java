@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util;
+
+import moe.maple.api.script.logic.ScriptAPI;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes dialog text to the client's charset, see {@link moe.maple.api.script.model.ScriptPreferences#getCharset()}.
+ * Takes any CharSequence, so a builder's contents can be encoded without making a String first.
+ * Characters the charset can't show become '?', same as {@link String#getBytes(Charset)}.
+ */
+public final class EncodedText {
+
+    private EncodedText() { }
+
+    public static ByteBuffer encode(CharSequence text) {
+        return encode(text, ScriptAPI.INSTANCE.getPreferences().getCharset());
+    }
+
+    /**
+     * @return a heap buffer holding exactly the encoded text, from position 0.
+     */
+    public static ByteBuffer encode(CharSequence text, Charset charset) {
+        if (charset.equals(StandardCharsets.ISO_8859_1))
+            return encodeSingleByte(text, 0xFF);
+        if (charset.equals(StandardCharsets.US_ASCII))
+            return encodeSingleByte(text, 0x7F);
+        return charset.encode(CharBuffer.wrap(text));
+    }
+
+    // One byte per char, no encoder needed.
+    private static ByteBuffer encodeSingleByte(CharSequence text, int max) {
+        var length = text.length();
+        var bytes = new byte[length];
+        var written = 0;
+        for (var i = 0; i < length; i++) {
+            var c = text.charAt(i);
+            if (c <= max) {
+                bytes[written++] = (byte) c;
+            } else {
+                bytes[written++] = '?';
+                // A surrogate pair is one character, and one '?'.
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1)))
+                    i++;
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, written).slice();
+    }
+}
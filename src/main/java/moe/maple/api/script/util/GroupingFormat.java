@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Formats whole numbers with the locale's digit grouping, 1000000 => 1,000,000 in Locale.US.
+ * Writes straight into the caller's StringBuilder, and is immutable, so any number of threads can share one.
+ * The output matches {@link NumberFormat#getNumberInstance(Locale)} for ints and longs.
+ */
+public final class GroupingFormat {
+
+    private static final Map<Locale, GroupingFormat> formats = new ConcurrentHashMap<>();
+
+    private final Locale locale;
+    private final char separator;
+    private final char zero;
+    private final int groupingSize;
+    private final String positivePrefix, positiveSuffix;
+    private final String negativePrefix, negativeSuffix;
+
+    private GroupingFormat(Locale locale) {
+        this.locale = locale;
+        var format = NumberFormat.getNumberInstance(locale);
+        var symbols = DecimalFormatSymbols.getInstance(locale);
+        this.separator = symbols.getGroupingSeparator();
+        this.zero = symbols.getZeroDigit();
+        if (format instanceof DecimalFormat) {
+            var decimal = (DecimalFormat) format;
+            this.groupingSize = decimal.isGroupingUsed() ? decimal.getGroupingSize() : 0;
+            this.positivePrefix = decimal.getPositivePrefix();
+            this.positiveSuffix = decimal.getPositiveSuffix();
+            this.negativePrefix = decimal.getNegativePrefix();
+            this.negativeSuffix = decimal.getNegativeSuffix();
+        } else {
+            this.groupingSize = 3;
+            this.positivePrefix = this.positiveSuffix = this.negativeSuffix = "";
+            this.negativePrefix = String.valueOf(symbols.getMinusSign());
+        }
+    }
+
+    /**
+     * @return the shared formatter for <code>locale</code>, symbols are only looked up once per locale.
+     */
+    public static GroupingFormat of(Locale locale) {
+        return formats.computeIfAbsent(locale, GroupingFormat::new);
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String format(long value) {
+        return appendTo(new StringBuilder(27), value).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder sb, long value) {
+        var negative = value < 0;
+        sb.append(negative ? negativePrefix : positivePrefix);
+        // Digits are taken from the negative side so Long.MIN_VALUE works.
+        var rest = negative ? value : -value;
+        var digits = 1;
+        for (var t = rest / 10; t != 0; t /= 10)
+            digits++;
+        var separators = groupingSize > 0 ? (digits - 1) / groupingSize : 0;
+        var position = sb.length() + digits + separators;
+        sb.setLength(position);
+        var written = 0;
+        do {
+            if (groupingSize > 0 && written > 0 && written % groupingSize == 0)
+                sb.setCharAt(--position, separator);
+            sb.setCharAt(--position, (char) (zero - (rest % 10)));
+            rest /= 10;
+            written++;
+        } while (rest != 0);
+        return sb.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupingFormat(" + locale + ")";
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of ints without boxing, made for menu indices.
+ * Small non-negative values, which is nearly every menu, are kept as bits.
+ * Anything else goes into a sorted array on the side.
+ */
+public final class IntSet {
+
+    // Values under this are stored as bits, 64 longs at most.
+    private static final int DENSE_LIMIT = 1 << 12;
+
+    private long[] bits;
+    private int[] sparse;
+    private int sparseSize;
+    private int size;
+    private boolean frozen;
+
+    public IntSet() {
+        this.bits = new long[1];
+    }
+
+    public static IntSet of(int... values) {
+        var set = new IntSet();
+        for (var value : values)
+            set.add(value);
+        return set;
+    }
+
+    /**
+     * @return true if the value wasn't already in the set.
+     */
+    public boolean add(int value) {
+        if (frozen)
+            throw new UnsupportedOperationException("Set is read only.");
+        if (value >= 0 && value < DENSE_LIMIT) {
+            var word = value >>> 6;
+            if (word >= bits.length)
+                bits = Arrays.copyOf(bits, Math.min(DENSE_LIMIT >>> 6, Math.max(word + 1, bits.length * 2)));
+            var mask = 1L << value;
+            if ((bits[word] & mask) != 0)
+                return false;
+            bits[word] |= mask;
+        } else {
+            if (sparse == null)
+                sparse = new int[4];
+            var slot = Arrays.binarySearch(sparse, 0, sparseSize, value);
+            if (slot >= 0)
+                return false;
+            slot = -slot - 1;
+            if (sparseSize == sparse.length)
+                sparse = Arrays.copyOf(sparse, sparseSize * 2);
+            System.arraycopy(sparse, slot, sparse, slot + 1, sparseSize - slot);
+            sparse[slot] = value;
+            sparseSize++;
+        }
+        size++;
+        return true;
+    }
+
+    public void addAll(IntSet other) {
+        for (var word = 0; word < other.bits.length; word++) {
+            var w = other.bits[word];
+            while (w != 0) {
+                add((word << 6) + Long.numberOfTrailingZeros(w));
+                w &= w - 1;
+            }
+        }
+        for (var i = 0; i < other.sparseSize; i++)
+            add(other.sparse[i]);
+    }
+
+    public void clear() {
+        if (frozen)
+            throw new UnsupportedOperationException("Set is read only.");
+        Arrays.fill(bits, 0L);
+        sparseSize = 0;
+        size = 0;
+    }
+
+    /**
+     * Makes the set read only, so it can be shared between threads once published.
+     */
+    public IntSet freeze() {
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    public boolean contains(int value) {
+        if (value >= 0 && value < DENSE_LIMIT) {
+            var word = value >>> 6;
+            return word < bits.length && (bits[word] & (1L << value)) != 0;
+        }
+        return sparseSize > 0 && Arrays.binarySearch(sparse, 0, sparseSize, value) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return every value, sorted.
+     */
+    public int[] toArray() {
+        var array = new int[size];
+        var i = 0;
+        // Negative values sort first, they're at the start of the sparse array.
+        var s = 0;
+        while (s < sparseSize && sparse[s] < 0)
+            array[i++] = sparse[s++];
+        for (var word = 0; word < bits.length; word++) {
+            var w = bits[word];
+            while (w != 0) {
+                array[i++] = (word << 6) + Long.numberOfTrailingZeros(w);
+                w &= w - 1;
+            }
+        }
+        while (s < sparseSize)
+            array[i++] = sparse[s++];
+        return array;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
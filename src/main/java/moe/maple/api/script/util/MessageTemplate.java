@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util;
+
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.Arrays;
+
+/**
+ * A <code>{}</code> format string parsed once, see {@link #of(String)}.
+ * Output is the same as slf4j's MessageFormatter, escapes and leftover placeholders included,
+ * so it can stand in for it anywhere in {@link Moematter}.
+ */
+public final class MessageTemplate {
+
+    // Direct mapped, keyed by identity. Formats are nearly always constants.
+    private static final int CACHE_SIZE = 512;
+    private static final MessageTemplate[] cache = new MessageTemplate[CACHE_SIZE];
+
+    private final String pattern;
+    // literals[i] comes before placeholder i, with escapes already applied.
+    private final String[] literals;
+    // Where the raw pattern picks up after placeholder i, used when the arguments run out.
+    private final int[] resume;
+    // Everything after the last placeholder, used when there are more arguments than placeholders.
+    private final String tail;
+    private final int literalLength;
+
+    private MessageTemplate(String pattern) {
+        this.pattern = pattern;
+        var literals = new String[8];
+        var resume = new int[8];
+        var count = 0;
+        var literal = new StringBuilder();
+        var i = 0;
+        while (true) {
+            var j = pattern.indexOf("{}", i);
+            if (j < 0)
+                break;
+            var escaped = j > 0 && pattern.charAt(j - 1) == '\\';
+            if (escaped && !(j > 1 && pattern.charAt(j - 2) == '\\')) {
+                literal.append(pattern, i, j - 1).append('{');
+                i = j + 1;
+                continue;
+            }
+            literal.append(pattern, i, escaped ? j - 1 : j);
+            if (count == literals.length) {
+                literals = Arrays.copyOf(literals, count * 2);
+                resume = Arrays.copyOf(resume, count * 2);
+            }
+            literals[count] = literal.toString();
+            resume[count] = j + 2;
+            count++;
+            literal.setLength(0);
+            i = j + 2;
+        }
+        this.tail = literal.append(pattern, i, pattern.length()).toString();
+        this.literals = Arrays.copyOf(literals, count);
+        this.resume = Arrays.copyOf(resume, count);
+        var length = tail.length();
+        for (var l : this.literals)
+            length += l.length();
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles <code>pattern</code>, or returns the template compiled the last time this same String was seen.
+     */
+    public static MessageTemplate of(String pattern) {
+        var slot = System.identityHashCode(pattern) & (CACHE_SIZE - 1);
+        var template = cache[slot];
+        if (template != null && template.pattern == pattern)
+            return template;
+        template = new MessageTemplate(pattern);
+        cache[slot] = template;
+        return template;
+    }
+
+    public static MessageTemplate compile(String pattern) {
+        return new MessageTemplate(pattern);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return how many arguments the template uses.
+     */
+    public int size() {
+        return literals.length;
+    }
+
+    public String format(Object... args) {
+        if (args == null)
+            return pattern;
+        var count = args.length;
+        // Same as slf4j, a trailing throwable is for the logger and isn't formatted.
+        if (count > 0 && args[count - 1] instanceof Throwable)
+            count--;
+        var sb = new StringBuilder(literalLength + count * 16);
+        return appendTo(sb, args, count).toString();
+    }
+
+    public String format(Object arg) {
+        if (arg instanceof Throwable)
+            return format(new Object[] { arg });
+        if (literals.length == 0)
+            return tail;
+        var sb = new StringBuilder(literalLength + 16);
+        sb.append(literals[0]);
+        appendValue(sb, arg);
+        return finish(sb, 1).toString();
+    }
+
+    /**
+     * {@link #format(Object)} without boxing. Named apart so a char or short still formats as itself.
+     */
+    public String formatInt(int arg) {
+        if (literals.length == 0)
+            return tail;
+        return finish(new StringBuilder(literalLength + 11).append(literals[0]).append(arg), 1).toString();
+    }
+
+    public String formatLong(long arg) {
+        if (literals.length == 0)
+            return tail;
+        return finish(new StringBuilder(literalLength + 20).append(literals[0]).append(arg), 1).toString();
+    }
+
+    public String formatInt(int first, int second) {
+        if (literals.length < 2)
+            return format(new Object[] { first, second });
+        var sb = new StringBuilder(literalLength + 22);
+        sb.append(literals[0]).append(first).append(literals[1]).append(second);
+        return finish(sb, 2).toString();
+    }
+
+    /**
+     * Formats straight into <code>sb</code>, a trailing throwable is formatted like any other argument.
+     */
+    public StringBuilder appendTo(StringBuilder sb, Object... args) {
+        return appendTo(sb, args, args.length);
+    }
+
+    private StringBuilder appendTo(StringBuilder sb, Object[] args, int count) {
+        if (count == 0)
+            return sb.append(pattern);
+        var used = Math.min(count, literals.length);
+        for (var i = 0; i < used; i++) {
+            sb.append(literals[i]);
+            appendValue(sb, args[i]);
+        }
+        return count > literals.length ? sb.append(tail) : finish(sb, used);
+    }
+
+    // Once the arguments run out slf4j copies the rest of the pattern as is, escapes and all.
+    private StringBuilder finish(StringBuilder sb, int used) {
+        return sb.append(pattern, resume[used - 1], pattern.length());
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value.getClass().isArray()) {
+            sb.append(MessageFormatter.arrayFormat("{}", new Object[] { value }).getMessage());
+        } else {
+            try {
+                sb.append(value.toString());
+            } catch (Throwable t) {
+                sb.append("[FAILED toString()]");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -28,7 +28,7 @@ import moe.maple.api.script.model.object.field.MobObject;
 import moe.maple.api.script.model.object.field.NpcObject;
 import moe.maple.api.script.model.object.user.ItemObject;
 import moe.maple.api.script.model.object.user.UserObject;
-import org.slf4j.helpers.MessageFormatter;
+import moe.maple.api.script.util.builder.MarkupWriter;
 
 import java.text.NumberFormat;
 import java.util.Locale;
@@ -36,21 +36,47 @@ import java.util.Locale;
 /**
  *  Generic class for MessageFormatter.
  *  Just because slf4j is a dependency and I trust nothing.
+ *  Formats are compiled once by {@link MessageTemplate}, the output is still slf4j's.
  */
 public class Moematter {
 
     public static String format(String format, Object object) {
-        return MessageFormatter.format(format, object).getMessage();
+        return format == null ? null : MessageTemplate.of(format).format(object);
     }
 
     public static String format(String format, Object... objects) {
-        return MessageFormatter.arrayFormat(format, objects).getMessage();
+        return format == null ? null : MessageTemplate.of(format).format(objects);
+    }
+
+    /**
+     * Same as {@link #format(String, Object)}, without boxing <code>value</code>.
+     * These aren't format overloads, a char would pick the int one and print as a number.
+     */
+    public static String formatInt(String format, int value) {
+        return format == null ? null : MessageTemplate.of(format).formatInt(value);
+    }
+
+    public static String formatLong(String format, long value) {
+        return format == null ? null : MessageTemplate.of(format).formatLong(value);
+    }
+
+    public static String formatInt(String format, int first, int second) {
+        return format == null ? null : MessageTemplate.of(format).formatInt(first, second);
     }
 
     // =================================================================================================================
 
+    /**
+     * @deprecated Not thread safe, and no longer read by {@link #formatWithLocale(Number)}, so replacing it
+     * changes nothing. Kept for subclasses that still reference it.
+     */
+    @Deprecated
     protected static NumberFormat commaFormatter = NumberFormat.getNumberInstance(Locale.getDefault());
 
+    private static final GroupingFormat grouping = GroupingFormat.of(Locale.getDefault());
+    // NumberFormat isn't thread safe, this is only for numbers that aren't whole.
+    private static final ThreadLocal<NumberFormat> decimalFormatter = ThreadLocal.withInitial(() -> NumberFormat.getNumberInstance(grouping.getLocale()));
+
     /**
      * Formats a number using the server's Locale
      * Ex. (Locale.US) 1000 => 1,000
@@ -58,38 +84,74 @@ public class Moematter {
      * @return A formatted number as a {@link String}
      */
     public static String formatWithLocale(Number hopefullyANumber) {
-        return commaFormatter.format(hopefullyANumber);
+        if (hopefullyANumber instanceof Integer || hopefullyANumber instanceof Long
+                || hopefullyANumber instanceof Short || hopefullyANumber instanceof Byte)
+            return grouping.format(hopefullyANumber.longValue());
+        return decimalFormatter.get().format(hopefullyANumber);
+    }
+
+    public static String formatWithLocale(long number) {
+        return grouping.format(number);
+    }
+
+    /**
+     * Same as {@link #formatWithLocale(long)}, without making a String.
+     */
+    public static StringBuilder formatWithLocale(StringBuilder sb, long number) {
+        return grouping.appendTo(sb, number);
     }
 
     // =================================================================================================================
 
     public static String bold(Object... objects) { return format("#e{}#n", objects); }
-    public static String bold(Object object) { return String.format("#e%s#n", object); }
+    public static String bold(Object object) { return wrap('e', object, 'n'); }
     public static String black(Object... objects) { return format("#k{}", objects); }
-    public static String black(Object objects) { return String.format("#k%s", objects.toString()); }
+    public static String black(Object objects) { return wrap('k', objects, (char) 0); }
     public static String blue(Object... objects) { return format("#b{}#k", objects); }
-    public static String blue(Object object) { return String.format("#b%s#k", object.toString()); }
+    public static String blue(Object object) { return wrap('b', object, 'k'); }
     public static String green(Object... objects) { return format("#g{}#k", objects); }
-    public static String green(Object object) { return String.format("#g%s#k", object.toString()); }
+    public static String green(Object object) { return wrap('g', object, 'k'); }
     public static String purple(Object... objects) { return format("#d{}#k", objects); }
-    public static String purple(Object object) { return String.format("#d%s#k", object.toString()); }
+    public static String purple(Object object) { return wrap('d', object, 'k'); }
     public static String red(Object... objects) { return format("#r{}#k", objects); }
-    public static String red(Object object) { return String.format("#r%s#k", object.toString()); }
+    public static String red(Object object) { return wrap('r', object, 'k'); }
+
+    // A close of 0 leaves the tag open, like black.
+    private static String wrap(char open, Object object, char close) {
+        var writer = MarkupWriter.acquire();
+        try {
+            writer.code(open).append(object);
+            if (close != 0)
+                writer.code(close);
+            return writer.toString();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static String id(char code, int id) {
+        var writer = MarkupWriter.acquire();
+        try {
+            return writer.id(code, id).toString();
+        } finally {
+            writer.release();
+        }
+    }
 
     /**
      * Shows the item icon.
      * todo: #i{id}:#, #z{id}#, #t{id}#, #v{id}#
      */
-    public static String item(Number itemWzId) { return String.format("#i%d#", itemWzId.intValue()); }
+    public static String item(Number itemWzId) { return id('i', itemWzId.intValue()); }
     public static String item(ItemObject object) { return item(object.getId()); }
 
-    public static String itemName(Number itemWzId) { return String.format("#z%d#", itemWzId.intValue()); }
+    public static String itemName(Number itemWzId) { return id('z', itemWzId.intValue()); }
     public static String itemName(ItemObject object) { return itemName(object.getId()); }
 
     /**
      * Shows the map name.
      */
-    public static String map(Number mapWzId) { return String.format("#m%d#", mapWzId.intValue()); }
+    public static String map(Number mapWzId) { return id('m', mapWzId.intValue()); }
     public static String map(FieldObject object) { return map(object.getId()); }
     public static String field(Number fieldWzId) { return map(fieldWzId); }
     public static String field(FieldObject object) { return map(object); }
@@ -97,24 +159,24 @@ public class Moematter {
     /**
      * Shows the mob name.
      */
-    public static String mob(Number mobWzId) { return String.format("#o%d#", mobWzId.intValue()); }
+    public static String mob(Number mobWzId) { return id('o', mobWzId.intValue()); }
     public static String mob(MobObject object) { return mob(object.getId()); }
 
     /**
      * Shows the npc name.
      */
-    public static String npc(Number npcWzId) { return String.format("#p%d#", npcWzId.intValue()); }
+    public static String npc(Number npcWzId) { return id('p', npcWzId.intValue()); }
     public static String npc(NpcObject object) { return npc(object.getTemplateId()); }
 
     /**
      * Shows an icon of the skill.
      */
-    public static String skill(Number skillWzId) { return String.format("#s%d#", skillWzId.intValue()); }
+    public static String skill(Number skillWzId) { return id('s', skillWzId.intValue()); }
 
     /**
      * Shows the name of the skill.
      */
-    public static String skillName(Number skillWzId) { return String.format("#q%d#", skillWzId.intValue()); }
+    public static String skillName(Number skillWzId) { return id('q', skillWzId.intValue()); }
 
 
     /**
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util;
+
+/**
+ * Starts the threads linear scripts run on, see <code>logic.linear.ScriptFiber</code>.
+ * It lives in util so the builder pools can tell those threads apart without depending on logic.
+ * This is the Java 11 version, which uses a platform thread per running script.
+ * The Java 21 version in <code>META-INF/versions/21</code> uses virtual threads instead.
+ */
+public final class ScriptThreads {
+
+    private ScriptThreads() { }
+
+    // A method rather than a constant, so callers don't inline the base version's value.
+    public static boolean isVirtual() {
+        return false;
+    }
+
+    public static Thread start(String name, Runnable body) {
+        var thread = new FiberThread(body, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public static boolean isFiber(Thread thread) {
+        return thread instanceof FiberThread;
+    }
+
+    private static final class FiberThread extends Thread {
+        private FiberThread(Runnable body, String name) {
+            super(body, name);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util;
+
+import moe.maple.api.script.model.MoeScript;
+import org.slf4j.Logger;
+
+/**
+ * Debug logging for the paths every click goes through.
+ * Calling <code>log.debug</code> with more than two arguments builds an array, and any int passed is boxed,
+ * even when debug is off. These check the level first and only box once something will be written.
+ *
+ * Running with <code>-Dmoe.script.trace=false</code> turns them off for good. {@link #ENABLED} is a
+ * static final, so the JIT drops the calls entirely and the logger isn't asked at all.
+ */
+public final class Trace {
+
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("moe.script.trace", "true"));
+
+    private Trace() { }
+
+    public static boolean isEnabled(Logger log) {
+        return ENABLED && log.isDebugEnabled();
+    }
+
+    public static void debug(Logger log, String message) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(message);
+    }
+
+    public static void debug(Logger log, String pattern, Object a) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a);
+    }
+
+    public static void debug(Logger log, String pattern, int a) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a);
+    }
+
+    public static void debug(Logger log, String pattern, Object a, Object b) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a, b);
+    }
+
+    public static void debug(Logger log, String pattern, int a, int b) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a, b);
+    }
+
+    public static void debug(Logger log, String pattern, int a, Object b) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a, b);
+    }
+
+    public static void debug(Logger log, String pattern, boolean a, boolean b) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a, b);
+    }
+
+    public static void debug(Logger log, String pattern, int a, int b, int c) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a, b, c);
+    }
+
+    public static void debug(Logger log, String pattern, int a, int b, Object c) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, a, b, c);
+    }
+
+    // =================================================================================================================
+
+    /**
+     * The script's {@link MoeScript#name()} and {@link MoeScript#getExpected()} fill the first two <code>{}</code>.
+     */
+    public static void script(Logger log, String pattern, MoeScript script) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, script.name(), script.getExpected());
+    }
+
+    public static void script(Logger log, String pattern, MoeScript script, int type, int action, int value) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, script.name(), script.getExpected(), type, action, value);
+    }
+
+    public static void script(Logger log, String pattern, MoeScript script, int type, int action, Object value) {
+        if (ENABLED && log.isDebugEnabled())
+            log.debug(pattern, script.name(), script.getExpected(), type, action, value);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util.builder;
+
+import moe.maple.api.script.util.ScriptThreads;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * One pooled object per thread, lent out by {@link #acquire()} and handed back with {@link #release(Object)}.
+ * A new object is returned instead if this thread's is already lent out, or if this is a script fiber thread,
+ * fibers park for minutes and there can be thousands of them.
+ * Objects that grew past <code>maxRetained</code> aren't kept after a release.
+ */
+final class BuilderPool<T> {
+
+    private final Supplier<T> factory;
+    private final ToIntFunction<T> capacity;
+    private final int maxRetained;
+    private final ThreadLocal<Slot<T>> local;
+
+    BuilderPool(Supplier<T> factory, ToIntFunction<T> capacity, int maxRetained) {
+        this.factory = factory;
+        this.capacity = capacity;
+        this.maxRetained = maxRetained;
+        this.local = ThreadLocal.withInitial(() -> new Slot<>(factory.get()));
+    }
+
+    T acquire() {
+        if (ScriptThreads.isFiber(Thread.currentThread()))
+            return factory.get();
+        var slot = local.get();
+        if (slot.borrowed)
+            return factory.get();
+        slot.borrowed = true;
+        return slot.value;
+    }
+
+    /**
+     * @return true if <code>value</code> was this thread's pooled object. Anything else is left for the gc.
+     */
+    boolean release(T value) {
+        if (ScriptThreads.isFiber(Thread.currentThread()))
+            return false;
+        var slot = local.get();
+        if (!slot.borrowed || slot.value != value)
+            return false;
+        slot.borrowed = false;
+        if (capacity.applyAsInt(value) > maxRetained)
+            slot.value = factory.get();
+        return true;
+    }
+
+    private static final class Slot<T> {
+        private T value;
+        private boolean borrowed;
+
+        private Slot(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util.builder;
+
+/**
+ * Writes client markup, like <code>#b</code> colors and <code>#i2000000#</code> ids, straight into a StringBuilder.
+ * No format strings are parsed, ids are appended as ints.
+ *
+ * {@link #acquire()} lends out a writer owned by the current thread, give it back with {@link #release()}:
+ * <pre>
+ *     var writer = MarkupWriter.acquire();
+ *     try {
+ *         return writer.wrap('b', name, 'k').toString();
+ *     } finally {
+ *         writer.release();
+ *     }
+ * </pre>
+ */
+public final class MarkupWriter {
+
+    // Buffers bigger than this aren't kept around after a release.
+    private static final int MAX_RETAINED = 1024;
+    private static final BuilderPool<MarkupWriter> pool = new BuilderPool<>(MarkupWriter::new, writer -> writer.sb.capacity(), MAX_RETAINED);
+
+    private final StringBuilder sb;
+
+    public MarkupWriter() {
+        this(new StringBuilder(64));
+    }
+
+    public MarkupWriter(StringBuilder sb) {
+        this.sb = sb;
+    }
+
+    /**
+     * @return this thread's writer, emptied. A new one if it's already lent out, toString() can call back into here,
+     * or if this is a script fiber thread.
+     */
+    public static MarkupWriter acquire() {
+        return pool.acquire();
+    }
+
+    /**
+     * Empties the writer and hands it back, take what was written with {@link #toString()} first.
+     */
+    public void release() {
+        sb.setLength(0);
+        pool.release(this);
+    }
+
+    /**
+     * Ex. 'b' => #b
+     */
+    public MarkupWriter code(char code) {
+        sb.append('#').append(code);
+        return this;
+    }
+
+    /**
+     * Ex. 'i', 2000000 => #i2000000#
+     */
+    public MarkupWriter id(char code, int id) {
+        sb.append('#').append(code).append(id).append('#');
+        return this;
+    }
+
+    /**
+     * Ex. 'b', "text", 'k' => #btext#k
+     */
+    public MarkupWriter wrap(char open, Object text, char close) {
+        sb.append('#').append(open).append(text).append('#').append(close);
+        return this;
+    }
+
+    public MarkupWriter color(FontColor color) {
+        sb.append(color.prefix);
+        return this;
+    }
+
+    public MarkupWriter style(FontStyle style) {
+        sb.append(style.prefix);
+        return this;
+    }
+
+    public MarkupWriter append(CharSequence text) {
+        sb.append(text);
+        return this;
+    }
+
+    public MarkupWriter append(Object object) {
+        sb.append(object);
+        return this;
+    }
+
+    public MarkupWriter append(int value) {
+        sb.append(value);
+        return this;
+    }
+
+    public StringBuilder buffer() {
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2019, y785, http://github.com/y785
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package moe.maple.api.script.util.builder;
+
+import moe.maple.api.script.util.IntSet;
+
+import java.util.Arrays;
+
+/**
+ * The menu items found in a piece of text, see {@link #scan(CharSequence)}.
+ * An item is <code>#L</code>, the index, <code>#</code>, the label and a closing <code>#l</code>.
+ * Labels can't contain a quote, same as the old menu regex.
+ * Instances are immutable and may be shared.
+ */
+public final class MenuMarkup {
+
+    private static final MenuMarkup EMPTY = new MenuMarkup(new int[0], 0);
+
+    // Direct mapped, keyed by identity. Constant prompts are the same String every time they're shown.
+    private static final int CACHE_SIZE = 256;
+    private static final CacheEntry[] cache = new CacheEntry[CACHE_SIZE];
+
+    // Each item takes four ints: index, item start, label start, item end.
+    private static final int STRIDE = 4;
+
+    private final int[] items;
+    private final int count;
+    private final IntSet indices;
+
+    private MenuMarkup(int[] items, int count) {
+        this.items = items;
+        this.count = count;
+        var indices = new IntSet();
+        for (var i = 0; i < count; i++)
+            indices.add(items[i * STRIDE]);
+        this.indices = indices.freeze();
+    }
+
+    /**
+     * Same as {@link #scan(CharSequence)}, but Strings are remembered by identity.
+     * Only for prompts that are compile time constants, or kept in a field, those only get scanned once.
+     * A prompt built at runtime is a new String every time and would push the constants out, use scan for it.
+     */
+    public static MenuMarkup of(CharSequence text) {
+        if (!(text instanceof String))
+            return scan(text);
+        var slot = System.identityHashCode(text) & (CACHE_SIZE - 1);
+        var entry = cache[slot];
+        if (entry != null && entry.text == text)
+            return entry.markup;
+        var markup = scan(text);
+        cache[slot] = new CacheEntry((String) text, markup);
+        return markup;
+    }
+
+    /**
+     * Finds every menu item in one pass over the text.
+     */
+    public static MenuMarkup scan(CharSequence text) {
+        var length = text.length();
+        int[] items = null;
+        var count = 0;
+        var i = 0;
+        while (i < length - 1) {
+            if (text.charAt(i) != '#' || text.charAt(i + 1) != 'L') {
+                i++;
+                continue;
+            }
+            var start = i;
+            i += 2;
+            var index = 0L;
+            var digits = 0;
+            while (i < length && digits <= 10) {
+                var c = text.charAt(i);
+                if (c < '0' || c > '9')
+                    break;
+                index = index * 10 + (c - '0');
+                digits++;
+                i++;
+            }
+            if (digits == 0 || index > Integer.MAX_VALUE || i >= length || text.charAt(i) != '#') {
+                i = start + 2;
+                continue;
+            }
+            var label = ++i;
+            var end = -1;
+            while (i < length - 1) {
+                var c = text.charAt(i);
+                if (c == '"')
+                    break;
+                if (c == '#' && text.charAt(i + 1) == 'l') {
+                    end = i + 2;
+                    break;
+                }
+                i++;
+            }
+            if (end < 0) {
+                i = start + 2;
+                continue;
+            }
+            if (items == null)
+                items = new int[STRIDE * 4];
+            else if ((count + 1) * STRIDE > items.length)
+                items = Arrays.copyOf(items, items.length * 2);
+            var at = count++ * STRIDE;
+            items[at] = (int) index;
+            items[at + 1] = start;
+            items[at + 2] = label;
+            items[at + 3] = end;
+            i = end;
+        }
+        return count == 0 ? EMPTY : new MenuMarkup(items, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return the menu index of the n-th item, in the order they appear.
+     */
+    public int index(int n) {
+        return item(n, 0);
+    }
+
+    /**
+     * @return where the n-th item's <code>#L</code> starts.
+     */
+    public int start(int n) {
+        return item(n, 1);
+    }
+
+    public int labelStart(int n) {
+        return item(n, 2);
+    }
+
+    /**
+     * @return where the n-th item's label ends, right before the closing <code>#l</code>.
+     */
+    public int labelEnd(int n) {
+        return item(n, 3) - 2;
+    }
+
+    /**
+     * @return the position right after the n-th item's closing <code>#l</code>.
+     */
+    public int end(int n) {
+        return item(n, 3);
+    }
+
+    /**
+     * @return every index as a read only set, shared by every user of this markup.
+     */
+    public IntSet indices() {
+        return indices;
+    }
+
+    private int item(int n, int field) {
+        if (n < 0 || n >= count)
+            throw new IndexOutOfBoundsException("Menu item " + n + " of " + count);
+        return items[n * STRIDE + field];
+    }
+
+    private static final class CacheEntry {
+        private final String text;
+        private final MenuMarkup markup;
+
+        private CacheEntry(String text, MenuMarkup markup) {
+            this.text = text;
+            this.markup = markup;
+        }
+    }
+}
@@ -11,7 +11,8 @@ import moe.maple.api.script.model.type.ScriptMessageParameters;
 import moe.maple.api.script.model.type.ScriptSpeakerType;
 import moe.maple.api.script.util.Moematter;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -38,7 +39,7 @@ public class SayBuilder {
     public SayBuilder(int speakerTemplate, int userObjectId) {
         this.speakerTemplate = speakerTemplate;
         this.userObjectId = userObjectId;
-        this.saying = new LinkedList<>();
+        this.saying = new ArrayList<>();
         this.speakerType = ScriptSpeakerType.NONE;//Not sure if we'll support this yet.
     }
 
@@ -64,6 +65,14 @@ public class SayBuilder {
         return this;
     }
 
+    /**
+     * Adds messages built elsewhere, after anything already added.
+     */
+    public SayBuilder add(Collection<? extends SayMessage> messages) {
+        this.saying.addAll(messages);
+        return this;
+    }
+
     public SayBuilder sayf(String message, Object... objects) {
         this.saying.add(new SayMessage(speakerType, speakerTemplate, replaceTemplate, parameters, Moematter.format(message, objects)));
         return this;
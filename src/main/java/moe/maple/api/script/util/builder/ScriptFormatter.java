@@ -42,4 +42,9 @@ public interface ScriptFormatter<Builder extends CharacterSequenceBuilder<Builde
         return get();
     }
 
+    default Builder appendWithLocale(long number) {
+        append(Moematter.formatWithLocale(number));
+        return get();
+    }
+
 }
@@ -23,15 +23,16 @@
 package moe.maple.api.script.util.builder;
 
 import moe.maple.api.script.model.helper.MenuItem;
+import moe.maple.api.script.util.EncodedText;
+import moe.maple.api.script.util.IntSet;
 import moe.maple.api.script.util.Moematter;
 import moe.maple.api.script.util.tuple.Tuple;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * @author umbreon22
@@ -42,10 +43,13 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
 
     private final StringBuilder textBuilder;
     private int runningMenuIndex;//Used with sequential array menus
+    private IntSet menuIndices;
+    private boolean menuIndicesShared;
 
     public ScriptMenuBuilder(StringBuilder builder) {
         this.textBuilder = builder;
         this.runningMenuIndex = 0;
+        this.menuIndices = new IntSet();
         resetColorAndStyle();
     }
 
@@ -81,6 +85,12 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
         return get();
     }
 
+    @Override
+    public Builder appendWithLocale(long number) {
+        Moematter.formatWithLocale(textBuilder, number);
+        return get();
+    }
+
     private static boolean isValidOption(String option) {
         return option != null && !option.isEmpty();
     }
@@ -131,6 +141,7 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
     public Builder appendMenuItem(int index, String option) {
         if(isValidOption(option)) {
             textBuilder.append("#L").append(index).append("#").append(option).append("#l");
+            menuIndices.add(index);
         }
         return get();
     }
@@ -138,6 +149,7 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
     public Builder appendMenuItemf(int index, String option, Object... format) {
         if(isValidOption(option)) {
             textBuilder.append("#L").append(index).append("#").append(Moematter.format(option, format)).append("#l");
+            menuIndices.add(index);
         }
         return get();
     }
@@ -165,6 +177,32 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
         return get();
     }
 
+    /**
+     * Indices are recorded as menu items are appended, so nothing has to be parsed back out of {@link #build()}.
+     * Markup added through {@link #append(String)} isn't seen here, use {@link #parseMenuIndices(String)} for that.
+     * @return The live set of menu indices appended so far.
+     */
+    public IntSet getMenuIndices() {
+        menuIndicesShared = true;
+        return menuIndices;
+    }
+
+    /**
+     * Empties the builder so it can be used again, see {@link ScriptStringBuilder#acquire()}.
+     * A set handed out by {@link #getMenuIndices()} is left alone, the builder starts a new one.
+     */
+    public Builder reset() {
+        textBuilder.setLength(0);
+        runningMenuIndex = 0;
+        if (menuIndicesShared) {
+            menuIndices = new IntSet();
+            menuIndicesShared = false;
+        } else {
+            menuIndices.clear();
+        }
+        return resetColorAndStyle();
+    }
+
     public String build() {
         if(textBuilder.length() == 0) {
             return "Invalid input.";
@@ -172,6 +210,13 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
         return textBuilder.toString();
     }
 
+    /**
+     * Same as {@link #build()}, but encoded to the client's charset straight from the buffer, no String is made.
+     */
+    public ByteBuffer buildEncoded() {
+        return EncodedText.encode(textBuilder.length() == 0 ? "Invalid input." : textBuilder);
+    }
+
     public static int parseMenuIndex(String menuLine) throws IllegalArgumentException {
         if(menuLine == null || menuLine.isEmpty()) throw new IllegalArgumentException("Cannot parse empty strings");
         int before = menuLine.indexOf("#L");
@@ -188,20 +233,28 @@ public class ScriptMenuBuilder<Builder extends ScriptMenuBuilder<Builder>> exten
     }
 
     /**
-     * Simple regex pattern to grab everything between #L and #l.
+     * Grabs every menu item, everything from #L to #l, see {@link MenuMarkup}.
      * @param fullMenuString Ex. "#L100# test #l\r\n#L101# test2 #l"
      * @return The client's expected menu index texts as an array
      */
-    private static Pattern menuIndexPattern = Pattern.compile("#L+\\d[^\"]+?#l", Pattern.MULTILINE);
     public static List<String> matchIndices(String fullMenuString) {
-        var matcher = menuIndexPattern.matcher(fullMenuString);
-        var list = new LinkedList<String>();
-        while(matcher.find()) {
-            list.add(matcher.group());
+        var markup = MenuMarkup.scan(fullMenuString);
+        var list = new ArrayList<String>(markup.size());
+        for (var i = 0; i < markup.size(); i++) {
+            list.add(fullMenuString.substring(markup.start(i), markup.end(i)));
         }
         return list;
     }
 
+    /**
+     * Collects every menu index in <code>fullMenuString</code> into a new set the caller owns.
+     * Use {@link MenuMarkup#of(CharSequence)} directly on a constant to share the cached, read only set.
+     */
+    public static IntSet parseMenuIndices(String fullMenuString) {
+        var indices = new IntSet();
+        indices.addAll(MenuMarkup.scan(fullMenuString).indices());
+        return indices;
+    }
 
     public static boolean containsMenuIndex(String menuLine) {
         int before = menuLine.indexOf("#L");
@@ -26,6 +26,11 @@ import moe.maple.api.script.util.Moematter;
 
 public class ScriptStringBuilder extends ScriptMenuBuilder<ScriptStringBuilder> {
 
+    // Big enough for most menus. Buffers that grew past the limit aren't kept after a release.
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED = 8192;
+    private static final BuilderPool<ScriptStringBuilder> pool = new BuilderPool<>(ScriptStringBuilder::pooled, sb -> sb.textBuilder.capacity(), MAX_RETAINED);
+
     private final StringBuilder textBuilder;
 
     public ScriptStringBuilder(StringBuilder sb) {
@@ -38,6 +43,23 @@ public class ScriptStringBuilder extends ScriptMenuBuilder<ScriptStringBuilder>
         this(new StringBuilder());
     }
 
+    private static ScriptStringBuilder pooled() {
+        return new ScriptStringBuilder(new StringBuilder(INITIAL_CAPACITY));
+    }
+
+    /**
+     * Lends out this thread's builder, emptied and with its color and style reset.
+     * Hand it back with {@link #release()} once the text is built, it must not be kept or used after that.
+     * If the builder is already lent out, or this is a script fiber thread, a new one is returned instead.
+     */
+    public static ScriptStringBuilder acquire() {
+        return pool.acquire().reset();
+    }
+
+    public void release() {
+        pool.release(this);
+    }
+
     public ScriptStringBuilder get() {
         return this;
     }
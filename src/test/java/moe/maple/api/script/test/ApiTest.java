@@ -22,13 +22,37 @@
 
 package moe.maple.api.script.test;
 
+import moe.maple.api.script.logic.MessengerRegistry;
+import moe.maple.api.script.logic.action.IntegerScriptAction;
+import moe.maple.api.script.logic.action.ObjectScriptAction;
+import moe.maple.api.script.logic.action.ScriptAction;
+import moe.maple.api.script.logic.action.StringScriptAction;
+import moe.maple.api.script.logic.event.PolledScriptEvent;
+import moe.maple.api.script.logic.event.ScriptEventList;
 import moe.maple.api.script.logic.response.SayResponse;
 import moe.maple.api.script.model.BaseScript;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.FieldScript;
 import moe.maple.api.script.model.NpcScript;
+import moe.maple.api.script.model.QuestScript;
+import moe.maple.api.script.model.ReactorScript;
 import moe.maple.api.script.model.Script;
+import moe.maple.api.script.model.ScriptContext;
 import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.model.helper.DialogDefinition;
 import moe.maple.api.script.model.helper.MenuItem;
+import moe.maple.api.script.model.helper.ScriptMenu;
+import moe.maple.api.script.model.helper.SlideItem;
+import moe.maple.api.script.model.messenger.ask.EncodedAskMenuMessenger;
+import moe.maple.api.script.model.messenger.say.EncodedPageCache;
+import moe.maple.api.script.model.messenger.say.EncodedSayMessenger;
+import moe.maple.api.script.model.messenger.say.SayMessage;
+import moe.maple.api.script.model.object.FieldObject;
+import moe.maple.api.script.model.object.field.NpcObject;
+import moe.maple.api.script.model.object.field.ReactorObject;
+import moe.maple.api.script.model.object.user.QuestObject;
 import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.EncodedText;
 import moe.maple.api.script.util.tuple.Tuple;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,6 +60,10 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -195,4 +223,516 @@ public class ApiTest {
 
 
     }
+
+    @Test
+    public void apiPrimitiveResume() {
+        var number = new AtomicInteger();
+        var text = new StringBuilder();
+
+        @Script(name = "ApiPrimitive")
+        class ApiPrimitiveLogic extends NpcScript {
+            @Override
+            protected void work() {
+                askNumber("Number?", 5, 1, 10).andThen(n -> {
+                    number.set(n);
+                    askText("Text?").andThen(text::append);
+                });
+            }
+        }
+
+        var test = new ApiPrimitiveLogic();
+        test.setUserObject(new TestUserObject());
+        test.start();
+
+        test.resumeInt(ScriptMessageType.ASKNUMBER, 1, 7);
+        assertEquals(7, number.get());
+        assertTrue(test.isPaused());
+
+        test.resumeText(ScriptMessageType.ASKTEXT, 1, "moe");
+        assertEquals("moe", text.toString());
+        assertTrue(test.isDone());
+
+        // Out of range, and the boxed path still works.
+        test.reset();
+        test.start();
+        test.resume(ScriptMessageType.ASKNUMBER, 1, (byte) 11);
+        assertTrue(test.isDone());
+        assertEquals(7, number.get());
+    }
+
+    @Test
+    public void apiObjectAction() {
+        var received = new StringBuilder();
+
+        @Script(name = "ApiObjectAction")
+        class ApiObjectActionLogic extends BaseScript {
+            @Override
+            protected void work() {
+                setScriptAction((ObjectScriptAction<List<String>>) list -> list.forEach(received::append));
+            }
+        }
+
+        var test = new ApiObjectActionLogic();
+        test.start();
+        assertTrue(test.isPaused());
+
+        test.resume(0, 1, List.of("a", "b"));
+        assertEquals("ab", received.toString());
+        assertTrue(test.isDone());
+    }
+
+    private static BaseScript waitingOn(ScriptAction action) {
+        var script = new BaseScript() {
+            @Override
+            protected void work() {
+                setScriptAction(action);
+            }
+        };
+        script.start();
+        return script;
+    }
+
+    @Test
+    public void apiActionReplies() {
+        var received = new ArrayList<Object>();
+        waitingOn((ObjectScriptAction<Object>) received::add).resume(0, 1, "object");
+        waitingOn((ObjectScriptAction<Object>) received::add).resumeInt(0, 1, 7);
+        waitingOn((ObjectScriptAction<Object>) received::add).resumeText(0, 1, "text");
+        assertEquals(List.of("object", 7, "text"), received);
+
+        received.clear();
+        waitingOn((IntegerScriptAction) received::add).resume(0, 1, (byte) 5);
+        waitingOn((IntegerScriptAction) received::add).resumeInt(0, 1, 6);
+        var wrong = waitingOn((IntegerScriptAction) received::add);
+        wrong.resumeText(0, 1, "text"); // Thrown and caught, the script just ends.
+        assertTrue(wrong.isDone());
+        assertEquals(List.of(5, 6), received);
+
+        received.clear();
+        waitingOn(new IntegerScriptAction() {
+            @Override public void act(Integer object) { fail("actInt is overridden"); }
+            @Override public void actInt(int value) { received.add(value * 10); }
+        }).resumeInt(0, 1, 1000);
+        assertEquals(List.of(10000), received);
+
+        received.clear();
+        waitingOn((StringScriptAction) received::add).resume(0, 1, "object");
+        waitingOn((StringScriptAction) received::add).resumeText(0, 1, "text");
+        wrong = waitingOn((StringScriptAction) received::add);
+        wrong.resumeInt(0, 1, 7);
+        assertTrue(wrong.isDone());
+        assertEquals(List.of("object", "text"), received);
+
+        wrong = waitingOn(new ScriptAction() { }); // Written against the old marker interface.
+        wrong.resumeInt(0, 1, 7);
+        assertTrue(wrong.isDone());
+    }
+
+    @Test
+    public void apiMessengerSnapshot() {
+        var before = ScriptAPI.INSTANCE.getMessengers();
+        assertSame(MessengerRegistry.logging(), before);
+
+        var sent = new AtomicInteger();
+        ScriptAPI.INSTANCE.setMessengerSay((user, type, speaker, replace, param, message, prev, next) -> sent.incrementAndGet());
+        var after = ScriptAPI.INSTANCE.getMessengers();
+        assertNotSame(before, after);
+        assertNotSame(before.getSay(), after.getSay());
+        assertSame(before.getAskMenu(), after.getAskMenu());
+
+        var script = new BaseScript() {
+            @Override
+            protected void work() {
+                ScriptAPI.say(this, "Hello");
+            }
+        };
+        script.setUserObject(new TestUserObject());
+        script.start();
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    public void apiSharedMenu() {
+        var picked = new AtomicInteger();
+        var menu = ScriptMenu.of("Pick", MenuItem.of("Zero", () -> picked.addAndGet(1)), MenuItem.of("One", () -> picked.addAndGet(10)));
+        var slide = ScriptMenu.slide(new SlideItem(5000, "Far", () -> picked.addAndGet(100)), new SlideItem(-7, "Negative", () -> picked.addAndGet(1000)));
+        assertNull(slide.getAction(0));
+
+        class Menus extends BaseScript {
+            @Override
+            protected void work() {
+                ScriptAPI.askMenu(this, menu);
+            }
+        }
+        var first = new Menus();
+        var second = new Menus();
+        first.start();
+        second.start();
+        first.resume(ScriptMessageType.ASKMENU, 1, 1);
+        second.resume(ScriptMessageType.ASKMENU, 1, 0);
+        assertEquals(11, picked.get());
+        assertTrue(first.isDone() && second.isDone());
+
+        var slider = new BaseScript() {
+            @Override
+            protected void work() {
+                ScriptAPI.askMenu(this, slide);
+            }
+        };
+        slider.start();
+        slider.resume(ScriptMessageType.ASKSLIDEMENU, 1, -7);
+        assertEquals(1011, picked.get());
+        slider.reset();
+        slider.start();
+        slider.resume(ScriptMessageType.ASKSLIDEMENU, 1, 4999);
+        assertTrue(slider.isDone());
+        assertEquals(1011, picked.get());
+    }
+
+    @Test
+    public void apiItemMenus() {
+        var picked = new StringBuilder();
+        var menu = new BaseScript() {
+            @Override
+            protected void work() {
+                ScriptAPI.askMenu(this, "Pick", List.of(MenuItem.of("Zero", () -> picked.append('0')), MenuItem.of("One", () -> picked.append('1'))));
+            }
+        };
+        menu.start();
+        menu.resume(ScriptMessageType.ASKMENU, 1, 1);
+        assertTrue(menu.isDone());
+
+        var slide = new BaseScript() {
+            @Override
+            protected void work() {
+                ScriptAPI.askSlideMenu(this, new SlideItem(7, "First", () -> picked.append('f')), new SlideItem(7, "Last", () -> picked.append('l')));
+            }
+        };
+        slide.start();
+        slide.resume(ScriptMessageType.ASKSLIDEMENU, 1, 7);
+        slide.reset();
+        slide.start();
+        slide.resume(ScriptMessageType.ASKSLIDEMENU, 1, 2);
+        assertTrue(slide.isDone());
+        assertEquals("1l", picked.toString());
+    }
+
+    @Test
+    public void apiMenuActionsSeeScript() {
+        var answered = new ArrayList<MoeScript>();
+        var menu = ScriptMenu.builder("Pick")
+                .item("Zero", answered::add)
+                .item("One", script -> fail("replaced by the later item"))
+                .item(1, "Also one", answered::add)
+                .build();
+        assertEquals(2, menu.size());
+
+        class Menus extends BaseScript {
+            @Override
+            protected void work() {
+                ScriptAPI.askMenu(this, menu);
+            }
+        }
+        var first = new Menus();
+        var second = new Menus();
+        first.start();
+        second.start();
+        second.resume(ScriptMessageType.ASKMENU, 1, 1);
+        first.resume(ScriptMessageType.ASKMENU, 1, 0);
+        assertEquals(List.of(second, first), answered);
+    }
+
+    private static final DialogDefinition TAXI = DialogDefinition.builder(1012000)
+            .say("Hello, I drive the Regular Cab.", "It's cheap!")
+            .menu("Where to?", "Henesys", "Ellinia", "Perion")
+            .build();
+
+    @Test
+    public void apiSharedDialog() {
+        var towns = new AtomicInteger();
+        class Taxi extends NpcScript {
+            @Override
+            protected void work() {
+                askMenu(TAXI).andThen(town -> towns.addAndGet(town + 1));
+            }
+        }
+        var first = new Taxi();
+        var second = new Taxi();
+        first.start();
+        second.start();
+        assertThrows(UnsupportedOperationException.class, () -> TAXI.getPages().clear());
+        for (var script : List.of(first, second)) {
+            script.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+            script.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+            assertTrue(script.isPaused());
+        }
+        first.resume(ScriptMessageType.ASKMENU, 1, 2);
+        second.resume(ScriptMessageType.ASKMENU, 1, 3); // Not an option.
+        assertEquals(3, towns.get());
+        assertTrue(first.isDone() && second.isDone());
+        assertThrows(IllegalArgumentException.class, () -> ScriptAPI.say(first, DialogDefinition.builder(0).menu("Only a menu", "One").build()));
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return StandardCharsets.ISO_8859_1.decode(buffer.duplicate()).toString();
+    }
+
+    @Test
+    public void apiEncodedMessengers() {
+        var sent = new ArrayList<String>();
+        ScriptAPI.INSTANCE.setMessengerSay((EncodedSayMessenger) (user, type, speaker, replace, param, message, prev, next) -> sent.add(text(message)));
+        ScriptAPI.INSTANCE.setMessengerAskMenu((EncodedAskMenuMessenger) (user, type, speaker, param, message) -> sent.add(text(message)));
+        var script = new NpcScript() {
+            @Override
+            protected void work() {
+                say("Caf\u00e9 \u2603").andThen(() -> askMenu("Pick", "One", "Two"));
+            }
+        };
+        script.setUserObject(new TestUserObject());
+        script.start();
+        script.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+        assertEquals(List.of("Caf\u00e9 ?", "Pick\r\n#b#L0#One#l\r\n#L1#Two#l\r\n"), sent);
+
+        sent.clear();
+        var taxi = new NpcScript() {
+            @Override
+            protected void work() {
+                askMenu(TAXI); // The menu is still asked.
+            }
+        };
+        taxi.setUserObject(new TestUserObject());
+        taxi.start();
+        taxi.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+        taxi.resume(ScriptMessageType.SAY, SayResponse.NEXT, null);
+        assertEquals(TAXI.getMenuText(), sent.get(2));
+        assertNotSame(TAXI.getEncodedMenu(), TAXI.getEncodedMenu());
+        assertTrue(TAXI.getEncodedMenu().isReadOnly());
+        var preferences = ScriptAPI.INSTANCE.getPreferences();
+        try {
+            preferences.charset(StandardCharsets.UTF_16BE);
+            assertEquals(TAXI.getMenuText().length() * 2, TAXI.getEncodedMenu().remaining());
+        } finally {
+            preferences.charset(StandardCharsets.ISO_8859_1);
+        }
+        assertEquals(TAXI.getMenuText(), text(TAXI.getEncodedMenu()));
+        assertEquals(1, EncodedText.encode("\ud83d\ude00", StandardCharsets.ISO_8859_1).remaining());
+        assertEquals(4, EncodedText.encode("\ud83d\ude00", StandardCharsets.UTF_8).remaining());
+    }
+
+    @Test
+    public void apiEncodedPageCache() {
+        var cache = new EncodedPageCache(2, 10);
+        var first = new SayMessage(0, 0, 0, 0, "First");
+        var second = new SayMessage(0, 0, 0, 0, "Second");
+        var big = new SayMessage(0, 0, 0, 0, "Far too big to keep");
+
+        var a = cache.get(first, StandardCharsets.ISO_8859_1);
+        a.get();
+        assertEquals("First", text(cache.get(first, StandardCharsets.ISO_8859_1)));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.get(second, StandardCharsets.ISO_8859_1); // 11 bytes, first is evicted.
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(6, cache.getBytes());
+
+        assertEquals("Far too big to keep", text(cache.get(big, StandardCharsets.ISO_8859_1)));
+        assertEquals(1, cache.size());
+        assertEquals(12, cache.get(second, StandardCharsets.UTF_16BE).remaining()); // Charset changed, encoded again.
+        assertEquals(4, cache.getMisses());
+        assertEquals("Second", text(cache.get(new SayMessage(1, 2, 3, 4, "Second"), StandardCharsets.ISO_8859_1)));
+        assertEquals(2, cache.getHits()); // Same text in another message.
+    }
+
+    @Test
+    public void apiEncodedPageCacheThroughSay() {
+        var shared = EncodedPageCache.shared();
+        var sent = new ArrayList<String>();
+        ScriptAPI.INSTANCE.setMessengerSay((EncodedSayMessenger) (user, type, speaker, replace, param, message, prev, next) -> sent.add(text(message)));
+        shared.clear();
+        var hits = shared.getHits();
+        for (var i = 0; i < 3; i++) {
+            var script = new BaseScript() {
+                @Override
+                protected void work() {
+                    ScriptAPI.say(this, "Welcome to Henesys.");
+                }
+            };
+            script.setUserObject(new TestUserObject());
+            script.start();
+        }
+        assertEquals(List.of("Welcome to Henesys.", "Welcome to Henesys.", "Welcome to Henesys."), sent);
+        assertEquals(1, shared.size());
+        assertEquals(hits + 2, shared.getHits());
+    }
+
+    @Test
+    public void apiMessageTypeMapping() {
+        var api = ScriptAPI.INSTANCE;
+        var answers = new AtomicInteger();
+        var script = new BaseScript() {
+            @Override
+            protected void work() {
+                ScriptAPI.askYesNo(this, "Sure?", answers::incrementAndGet, this::end);
+            }
+        };
+        try {
+            api.setScriptMessageType(ScriptMessageType.ASKYESNO, 40);
+            script.start();
+            api.setScriptMessageType(ScriptMessageType.ASKYESNO, 41); // The prompt already knows its type.
+            script.resume(40, 1, 0);
+            assertEquals(1, answers.get());
+            assertEquals(41, api.getScriptMessageType(ScriptMessageType.ASKYESNO));
+            assertEquals(100, api.getScriptMessageType(100));
+            assertEquals(-1, api.getScriptMessageType(-1));
+        } finally {
+            api.setScriptMessageType(ScriptMessageType.ASKYESNO, ScriptMessageType.ASKYESNO);
+        }
+    }
+
+    @Test
+    public void apiEventOrder() {
+        var fired = new StringBuilder();
+        var script = new BaseScript() {
+            @Override
+            protected void work() { }
+        };
+        script.addStartEvent(s -> fired.append('a'));
+        script.addStartEvent((PolledScriptEvent) s -> {
+            fired.append('b');
+            s.addStartEvent((PolledScriptEvent) t -> fired.append('d')); // Added mid pass, runs next time.
+        });
+        script.addStartEvent(s -> fired.append('c'));
+
+        script.start();
+        assertEquals("abc", fired.toString());
+        script.reset();
+        script.start();
+        assertEquals("abcacd", fired.toString());
+        script.reset();
+        script.start();
+        assertEquals("abcacdac", fired.toString());
+    }
+
+    @Test
+    public void apiEventReentry() {
+        var fired = new StringBuilder();
+        var script = new BaseScript() {
+            @Override
+            protected void work() { }
+        };
+        script.addEndEvent(s -> fired.append('m'));
+        script.addEndEvent((PolledScriptEvent) s -> {
+            fired.append('s');
+            s.end(); // Runs the end events again before done is set.
+        });
+        script.addEndEvent(s -> fired.append('r'));
+
+        script.start();
+        script.end();
+        assertEquals("msmr", fired.toString());
+        assertTrue(script.isDone());
+
+        var list = new ScriptEventList();
+        list.add(s -> fired.append('m'));
+        list.add((PolledScriptEvent) s -> list.run(s));
+        list.add(s -> fired.append('r'));
+        fired.setLength(0);
+        list.run(script);
+        assertEquals("mmr", fired.toString());
+        assertEquals(2, list.size());
+        list.run(script);
+        assertEquals("mmrmr", fired.toString());
+    }
+
+    @Test
+    public void apiSharedContext() {
+        var user = new TestUserObject();
+        var context = ScriptContext.builder().user(user).build();
+        var a = new NpcScript() { @Override protected void work() { } };
+        var b = new NpcScript() { @Override protected void work() { } };
+        a.setContext(context);
+        b.setContext(context);
+        assertSame(context, a.getContext());
+        assertSame(a.getUserObject(), b.getUserObject());
+        assertSame(user, a.getContext().getUser());
+        assertNull(a.getContext().getNpc());
+        assertEquals(2007, a.getSpeakerTemplateId());
+
+        a.setUserObject(null); // Copies, the shared context is left alone.
+        assertTrue(a.getUserObject().isEmpty());
+        assertSame(user, context.getUser());
+        b.recycle();
+        assertSame(ScriptContext.EMPTY, b.getContext());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            var result = method.getReturnType();
+            return result == int.class ? 0 : result == boolean.class ? false : null;
+        });
+    }
+
+    @Test
+    public void apiContextSetsSelf() {
+        var npc = stub(NpcObject.class);
+        var quest = stub(QuestObject.class);
+        var field = stub(FieldObject.class);
+        var reactor = stub(ReactorObject.class);
+        var context = ScriptContext.builder().npc(npc).quest(quest).field(field).reactor(reactor).build();
+
+        var npcScript = new NpcScript() { @Override protected void work() { } Object self() { return self; } };
+        var questScript = new QuestScript() { @Override protected void work() { } Object self() { return self; } };
+        var fieldScript = new FieldScript() { @Override protected void work() { } Object self() { return self; } };
+        var reactorScript = new ReactorScript() { @Override protected void work() { } Object self() { return self; } };
+        npcScript.setContext(context);
+        questScript.setContext(context);
+        fieldScript.setContext(context);
+        reactorScript.setContext(context);
+        assertSame(npc, npcScript.self());
+        assertSame(quest, questScript.self());
+        assertSame(field, fieldScript.self());
+        assertSame(reactor, reactorScript.self());
+        assertSame(context, questScript.getContext());
+
+        var other = stub(NpcObject.class);
+        questScript.setNpcObject(other); // Out of date now, a new context is built once.
+        assertNotSame(context, questScript.getContext());
+        assertSame(questScript.getContext(), questScript.getContext());
+        assertSame(other, questScript.getContext().getNpc());
+
+        npcScript.recycle();
+        questScript.recycle();
+        fieldScript.recycle();
+        reactorScript.recycle();
+        assertNull(npcScript.self());
+        assertNull(questScript.self());
+        assertNull(fieldScript.self());
+        assertNull(reactorScript.self());
+        assertTrue(questScript.getQuestObject().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void apiLegacySayChain() {
+        var sent = new ArrayList<String>();
+        ScriptAPI.INSTANCE.setMessengerSay((user, type, speaker, replace, param, message, prev, next) -> sent.add(message + prev + next));
+        var script = new BaseScript() {
+            @Override
+            protected void work() {
+                var messenger = ScriptAPI.INSTANCE.getMessengers().getSay();
+                var chain = new SayResponse[2];
+                chain[0] = new SayResponse(chain, messenger, this, 0, new SayMessage(0, 9010000, 0, 0, "a"));
+                chain[1] = new SayResponse(chain, messenger, this, 1, new SayMessage(0, 9010000, 0, 0, "b"));
+                chain[0].onResponse(chain[0]);
+            }
+        };
+        script.setUserObject(new TestUserObject());
+        script.start();
+        script.resumeInt(ScriptMessageType.SAY, SayResponse.NEXT, 0);
+        script.resumeInt(ScriptMessageType.SAY, SayResponse.PREV, 0);
+        assertEquals(List.of("afalsetrue", "btruefalse", "afalsetrue"), sent);
+    }
 }
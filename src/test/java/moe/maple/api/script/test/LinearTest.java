@@ -0,0 +1,105 @@
+package moe.maple.api.script.test;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.logic.linear.ScriptCancelledException;
+import moe.maple.api.script.logic.linear.ScriptFiber;
+import moe.maple.api.script.logic.response.SayResponse;
+import moe.maple.api.script.model.LinearScript;
+import moe.maple.api.script.model.Script;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import moe.maple.api.script.util.builder.ScriptStringBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LinearTest {
+
+    @BeforeEach
+    public void beforeEach() {
+        ScriptAPI.INSTANCE.setDefaultMessengers();
+    }
+
+    @Script(name = "LinearTaxi")
+    public static class LinearTaxi extends LinearScript {
+
+        final List<Object> answers = new ArrayList<>();
+        boolean cancelled;
+
+        @Override
+        protected void run() {
+            try {
+                if (askYesNo("Want a ride?")) {
+                    answers.add(askMenu("Where to?", List.of("Henesys", "Ellinia", "Perion")));
+                    answers.add(askNumber("How many?", 1, 1, 5));
+                    say("Off we go!", "Bye!");
+                    answers.add("arrived");
+                } else {
+                    answers.add(askText("Why not?", "", 0, 10));
+                }
+            } catch (ScriptCancelledException e) {
+                cancelled = true;
+                throw e;
+            }
+        }
+    }
+
+    @Test
+    public void linearFlow() {
+        var taxi = new LinearTaxi();
+        taxi.setUserObject(new TestUserObject());
+        taxi.start();
+        assertTrue(taxi.isPaused());
+
+        taxi.resumeInt(ScriptMessageType.ASKYESNO, 1, 0);
+        taxi.resumeInt(ScriptMessageType.ASKMENU, 1, 2);
+        taxi.resume(ScriptMessageType.ASKNUMBER, 1, 3);
+        assertTrue(taxi.isPaused());
+        taxi.resumeInt(ScriptMessageType.SAY, SayResponse.NEXT, 0);
+        taxi.resumeInt(ScriptMessageType.SAY, SayResponse.NEXT, 0);
+
+        assertEquals(List.of(2, 3, "arrived"), taxi.answers);
+        assertTrue(taxi.isDone());
+
+        taxi.reset();
+        taxi.answers.clear();
+        taxi.start();
+        taxi.resumeInt(ScriptMessageType.ASKYESNO, 0, 0);
+        taxi.resumeText(ScriptMessageType.ASKTEXT, 1, "no money");
+        assertEquals(List.of("no money"), taxi.answers);
+        assertTrue(taxi.isDone());
+    }
+
+    @Test
+    public void linearEscape() {
+        var taxi = new LinearTaxi();
+        taxi.setUserObject(new TestUserObject());
+        taxi.start();
+        taxi.resumeInt(ScriptMessageType.ASKYESNO, 1, 0);
+        taxi.resumeInt(ScriptMessageType.ASKMENU, 0, 0); // Escaped the menu.
+
+        assertTrue(taxi.cancelled);
+        assertTrue(taxi.isDone());
+        assertTrue(taxi.answers.isEmpty());
+    }
+
+    @Test
+    public void fibersSkipThreadPools() {
+        var pooled = new ArrayList<Boolean>();
+        Runnable check = () -> {
+            var first = ScriptStringBuilder.acquire();
+            first.release();
+            var second = ScriptStringBuilder.acquire();
+            second.release();
+            pooled.add(first == second);
+        };
+        check.run();
+        var fiber = new ScriptFiber("Pools", check);
+        fiber.start();
+        assertTrue(fiber.isFinished());
+        assertEquals(List.of(true, false), pooled);
+    }
+}
@@ -0,0 +1,185 @@
+package moe.maple.api.script.test;
+
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.NpcScript;
+import moe.maple.api.script.model.Script;
+import moe.maple.api.script.registry.ScriptFactory;
+import moe.maple.api.script.registry.ScriptMetadata;
+import moe.maple.api.script.registry.ScriptPool;
+import moe.maple.api.script.registry.ScriptPools;
+import moe.maple.api.script.registry.ScriptRegistry;
+import moe.maple.api.script.registry.processor.ScriptIndexProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistryTest {
+
+    private static final Logger log = LoggerFactory.getLogger( RegistryTest.class );
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static String location(Class<?> type) throws Exception {
+        return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    @Test
+    public void processorWritesIndex(@TempDir Path out) throws Exception {
+        var sources = List.of(
+                source("scripts.Taxi", "package scripts;\n" +
+                        "@moe.maple.api.script.model.Script(name = {\"taxi\", \"taxi2\"}, author = \"y785\", description = \"Regular \\\"Cab\\\"\", field = {100000000, 101000000})\n" +
+                        "public class Taxi extends moe.maple.api.script.model.NpcScript {\n" +
+                        "    @Override protected void work() { }\n" +
+                        "}"),
+                source("scripts.Hidden", "package scripts;\n" +
+                        "@moe.maple.api.script.model.Script(name = \"hidden\")\n" +
+                        "class Hidden extends moe.maple.api.script.model.NpcScript {\n" +
+                        "    @Override protected void work() { }\n" +
+                        "}"));
+
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var classPath = location(MoeScript.class) + File.pathSeparator + location(Logger.class);
+        var options = List.of("-d", out.toString(), "-classpath", classPath, "-Amoe.script.index=scripts.TestIndex");
+        var task = compiler.getTask(null, null, diagnostics, options, null, sources);
+        task.setProcessors(List.of(new ScriptIndexProcessor()));
+
+        var success = task.call();
+        diagnostics.getDiagnostics().forEach(d -> log.debug("{}", d));
+        assertTrue(success);
+        assertTrue(diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == javax.tools.Diagnostic.Kind.WARNING && String.valueOf(d.getSource()).contains("Hidden")));
+
+        try (var loader = new URLClassLoader(new java.net.URL[] { out.toUri().toURL() }, RegistryTest.class.getClassLoader())) {
+            var registry = ScriptRegistry.load(loader);
+            assertEquals(1, registry.size());
+
+            var taxi = registry.get("taxi2").orElseThrow();
+            assertEquals("taxi", taxi.name());
+            assertEquals("y785", taxi.author());
+            assertEquals("Regular \"Cab\"", taxi.description());
+            assertEquals(List.of(taxi), registry.getByField(101000000));
+            assertTrue(registry.getByField(0).isEmpty());
+            assertFalse(registry.contains("hidden"));
+
+            var script = registry.create("taxi2").orElseThrow();
+            assertEquals("scripts.Taxi", script.getClass().getName());
+            assertEquals("taxi2", script.getExpected());
+        }
+    }
+
+    @Script(name = "bound", field = 910000000)
+    public static class BoundScript extends NpcScript {
+        @Override protected void work() { }
+    }
+
+    @Test
+    public void factoryBinding() {
+        var factory = ScriptFactory.of(BoundScript.class);
+        var a = factory.create();
+        var b = factory.create();
+        assertTrue(a instanceof BoundScript);
+        assertNotSame(a, b);
+
+        var registry = ScriptRegistry.builder().add(BoundScript.class).build();
+        assertEquals("bound", registry.create("bound").orElseThrow().name());
+        assertEquals(1, registry.getByField(910000000).size());
+
+        assertThrows(IllegalArgumentException.class, () -> ScriptFactory.of(NpcScript.class));
+        assertThrows(IllegalArgumentException.class, () -> ScriptFactory.of(PrivateScript.class));
+    }
+
+    public static class PrivateScript extends NpcScript {
+        private PrivateScript() { }
+        @Override protected void work() { }
+    }
+
+    @Test
+    public void poolReuse() {
+        var pools = new ScriptPools(ScriptRegistry.builder().add(BoundScript.class).build(), 1, 1);
+        var first = pools.acquire("bound").orElseThrow();
+        var second = pools.acquire("bound").orElseThrow();
+        assertNotSame(first, second);
+        first.addEndEvent(s -> { });
+        first.start();
+        assertTrue(first.isDone());
+
+        pools.release(first);
+        pools.release(second); // Pool is full, dropped.
+        var pool = pools.get(BoundScript.class).orElseThrow();
+        assertEquals(1, pool.size());
+
+        var reused = pools.acquire("bound").orElseThrow();
+        assertSame(first, reused);
+        assertFalse(reused.isDone());
+        assertEquals("bound", reused.getExpected());
+        assertEquals(2, pool.getCreated());
+        assertEquals(1, pool.getReused());
+        assertTrue(pools.acquire("missing").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new ScriptPool(BoundScript::new, -1, 0));
+
+        var twice = new ScriptPool(BoundScript::new, 2, 0);
+        var script = twice.acquire();
+        twice.release(script);
+        twice.release(script); // Already pooled, ignored.
+        assertEquals(1, twice.size());
+        assertNotSame(twice.acquire(), twice.acquire());
+
+        var late = new ScriptPool(BoundScript::new, 2, 0);
+        var held = late.acquire();
+        var generation = held.getPoolGeneration();
+        late.release(held, generation);
+        assertSame(held, late.acquire()); // Someone else has it now.
+        held.setExpected("in use");
+        late.release(held, generation); // Stale, ignored.
+        assertEquals("in use", held.getExpected());
+        assertEquals(0, late.size());
+    }
+
+    @Test
+    public void memoizedMetadata() {
+        var script = new BoundScript();
+        assertSame(ScriptMetadata.get(BoundScript.class), script.metadata());
+        assertSame(script.metadata(), ScriptMetadata.of(BoundScript.class));
+        assertEquals("bound", script.name());
+        assertArrayEquals(new int[] { 910000000 }, script.metadata().fields());
+
+        var local = new NpcScript() { @Override protected void work() { } };
+        assertEquals("Unnamed Script: " + local.getClass().getName(), local.name());
+        assertNull(local.metadata().factory());
+        assertThrows(IllegalArgumentException.class, () -> ScriptMetadata.of(NpcScript.class));
+        assertThrows(IllegalStateException.class, () -> ScriptMetadata.get(NpcScript.class).create());
+
+        var indexed = new IndexedScript();
+        assertEquals("Unnamed Script: " + IndexedScript.class.getName(), indexed.name());
+        var entry = new ScriptMetadata(IndexedScript.class, IndexedScript::new, new String[] { "indexed" }, "", "", new int[] { 0 });
+        var registry = ScriptRegistry.builder().add(entry).build();
+        assertSame(entry, registry.get(IndexedScript.class).orElseThrow());
+        assertSame(ScriptMetadata.get(IndexedScript.class), indexed.metadata()); // Still the annotation, nothing global.
+        assertEquals("Unnamed Script: " + IndexedScript.class.getName(), indexed.name());
+    }
+
+    // No annotation, like a script only named by its generated index.
+    public static class IndexedScript extends NpcScript {
+        @Override protected void work() { }
+    }
+}
@@ -0,0 +1,185 @@
+package moe.maple.api.script.test;
+
+import moe.maple.api.script.logic.ScriptAPI;
+import moe.maple.api.script.logic.session.ScriptSessionExecutor;
+import moe.maple.api.script.logic.session.ScriptSessionReaper;
+import moe.maple.api.script.model.MoeScript;
+import moe.maple.api.script.model.NpcScript;
+import moe.maple.api.script.model.Script;
+import moe.maple.api.script.model.type.ScriptMessageType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionTest {
+
+    @Test
+    public void sessionsRunInOrder() throws Exception {
+        var users = 8;
+        var calls = 2000;
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var sessions = new ScriptSessionExecutor<Integer>(pool, 16);
+            var seen = new ArrayList<List<Integer>>();
+            for (var u = 0; u < users; u++)
+                seen.add(new ArrayList<>()); // Not thread-safe on purpose.
+            var done = new CountDownLatch(users);
+
+            for (var c = 0; c < calls; c++) {
+                for (var u = 0; u < users; u++) {
+                    var user = u;
+                    var call = c;
+                    sessions.execute(user, () -> {
+                        seen.get(user).add(call);
+                        if (call == 1000)
+                            throw new IllegalStateException("Shouldn't stop the mailbox.");
+                        if (call == calls - 1)
+                            done.countDown();
+                    });
+                }
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (var list : seen) {
+                assertEquals(calls, list.size());
+                for (var i = 0; i < calls; i++)
+                    assertEquals(i, (int) list.get(i));
+            }
+            assertEquals(users, sessions.size());
+            sessions.close(0);
+            awaitSize(sessions, users - 1); // The last call may still be finishing up.
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitSize(ScriptSessionExecutor<?> sessions, int size) throws InterruptedException {
+        for (var i = 0; i < 1000 && sessions.size() != size; i++)
+            Thread.sleep(1);
+        assertEquals(size, sessions.size());
+    }
+
+    @Test
+    public void closeWaitsForDrain() throws Exception {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var sessions = new ScriptSessionExecutor<Integer>(pool);
+            var release = new CountDownLatch(1);
+            var active = new AtomicInteger();
+            var overlapped = new AtomicBoolean();
+            var seen = new ConcurrentLinkedQueue<Integer>();
+            for (var c = 0; c < 3; c++) {
+                var call = c;
+                sessions.execute(0, () -> {
+                    if (active.incrementAndGet() > 1)
+                        overlapped.set(true);
+                    if (call == 0)
+                        assertDoesNotThrow(() -> release.await(10, TimeUnit.SECONDS));
+                    seen.add(call);
+                    active.decrementAndGet();
+                });
+                if (c == 1)
+                    sessions.close(0); // Still draining, the next call has to queue behind it.
+            }
+            assertEquals(1, sessions.size());
+            release.countDown();
+            awaitSize(sessions, 0);
+            assertFalse(overlapped.get());
+            assertEquals(List.of(0, 1, 2), List.copyOf(seen));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Script(name = "SessionIdle")
+    public static class IdleScript extends NpcScript {
+        int ended;
+
+        @Override
+        protected void work() {
+            addEndEvent(s -> ended++);
+            askYesNo("Still there?", () -> askYesNo("Sure?", () -> {}));
+        }
+    }
+
+    @Test
+    public void reaperExpiresIdleSessions() {
+        ScriptAPI.INSTANCE.setDefaultMessengers();
+        var now = new AtomicLong();
+        var reaper = new ScriptSessionReaper(10, 1, TimeUnit.SECONDS, 4, MoeScript::end, now::get);
+        var second = TimeUnit.SECONDS.toNanos(1);
+
+        var idle = new IdleScript();
+        idle.setUserObject(new TestUserObject());
+        idle.start();
+        var active = new IdleScript();
+        active.setUserObject(new TestUserObject());
+        active.start();
+        var gone = new IdleScript();
+        gone.start();
+
+        var idleSession = reaper.watch(idle);
+        reaper.attach(active);
+        var goneSession = reaper.watch(gone);
+        assertEquals(3, reaper.size());
+        assertTrue(reaper.cancel(goneSession));
+        assertFalse(reaper.cancel(goneSession));
+
+        now.set(6 * second);
+        assertEquals(0, reaper.advance());
+        active.resumeInt(ScriptMessageType.ASKYESNO, 1, 0); // Touched by the after run event.
+
+        now.set(10 * second);
+        assertEquals(1, reaper.advance());
+        assertTrue(idleSession.isExpired());
+        assertTrue(idle.isDone());
+        assertEquals(1, idle.ended);
+        assertFalse(active.isDone());
+        assertFalse(reaper.touch(idleSession));
+
+        active.resumeInt(ScriptMessageType.ASKYESNO, 1, 0); // Done, so the end event cancels it.
+        assertTrue(active.isDone());
+        assertEquals(0, reaper.size());
+        assertFalse(gone.isDone());
+    }
+
+    @Test
+    public void reaperEndsOnSessionThread() throws Exception {
+        ScriptAPI.INSTANCE.setDefaultMessengers();
+        var pool = Executors.newSingleThreadExecutor();
+        try {
+            var sessions = new ScriptSessionExecutor<Integer>(pool);
+            var sessionThread = pool.submit(Thread::currentThread).get();
+            var now = new AtomicLong();
+            var reaper = new ScriptSessionReaper(1, 1, TimeUnit.SECONDS, 4, script -> sessions.end(0, script), now::get);
+
+            var idle = new IdleScript();
+            idle.setUserObject(new TestUserObject());
+            var endedOn = new CountDownLatch(1);
+            var ended = new ArrayList<Thread>();
+            idle.addEndEvent(s -> {
+                ended.add(Thread.currentThread());
+                endedOn.countDown();
+            });
+            sessions.start(0, idle);
+            reaper.watch(idle);
+
+            now.set(TimeUnit.SECONDS.toNanos(1));
+            assertEquals(1, reaper.advance());
+            assertTrue(endedOn.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of(sessionThread), ended);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package moe.maple.api.script.test.stringbuilder;
+
+import moe.maple.api.script.util.GroupingFormat;
+import moe.maple.api.script.util.MessageTemplate;
+import moe.maple.api.script.util.Moematter;
+import org.junit.jupiter.api.Test;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormatTest {
+
+    private static final String[] PATTERNS = {
+            "", "plain", "{}", "a {} b", "{}{}", "\\{} {}", "{} \\{}", "\\\\{} {}", "{} {} \\{} {}", "end {", "{ } {}}", "\\{}"
+    };
+
+    private static final Object[][] ARGUMENTS = {
+            { }, { 1 }, { "x", 2 }, { null, 'c', 3L }, { 1, 2, 3, 4, 5 }, { new int[] { 1, 2 } }, { "x", new IllegalStateException() }
+    };
+
+    @Test
+    public void testMatchesSlf4j() {
+        for (var pattern : PATTERNS) {
+            for (var args : ARGUMENTS) {
+                var expected = MessageFormatter.arrayFormat(pattern, args).getMessage();
+                assertEquals(expected, Moematter.format(pattern, args), () -> pattern + " with " + args.length);
+                if (args.length == 1)
+                    assertEquals(expected, Moematter.format(pattern, args[0]), pattern);
+            }
+            assertEquals(MessageFormatter.format(pattern, 7).getMessage(), Moematter.formatInt(pattern, 7));
+            assertEquals(MessageFormatter.format(pattern, 7L).getMessage(), Moematter.formatLong(pattern, 7L));
+            assertEquals(MessageFormatter.format(pattern, 7, 8).getMessage(), Moematter.formatInt(pattern, 7, 8));
+        }
+        assertNull(Moematter.format(null, 1));
+        assertNull(Moematter.formatInt(null, 1));
+        assertEquals("xAy", Moematter.format("x{}y", (char) 65));
+        assertEquals("xAy", MessageTemplate.of("x{}y").format((char) 65));
+    }
+
+    @Test
+    public void testTemplateCache() {
+        var pattern = "Hello {}";
+        assertSame(MessageTemplate.of(pattern), MessageTemplate.of(pattern));
+        assertEquals(1, MessageTemplate.of(pattern).size());
+        assertEquals("> Hello 1", MessageTemplate.of(pattern).appendTo(new StringBuilder("> "), 1).toString());
+    }
+
+    @Test
+    public void testGroupingMatchesNumberFormat() {
+        var values = new long[] { 0, 7, -7, 999, 1000, -1000, 123456, 1000000, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+        for (var locale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("de", "CH"), Locale.forLanguageTag("ar-EG"), Locale.forLanguageTag("hi-IN") }) {
+            var expected = NumberFormat.getNumberInstance(locale);
+            for (var value : values)
+                assertEquals(expected.format(value), GroupingFormat.of(locale).format(value), () -> locale + " " + value);
+        }
+        assertEquals("> 1,000", GroupingFormat.of(Locale.US).appendTo(new StringBuilder("> "), 1000).toString());
+    }
+
+    @Test
+    public void testGroupingIsThreadSafe() throws Exception {
+        var expected = Moematter.formatWithLocale(1234567L);
+        var bad = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(4);
+        for (var t = 0; t < 4; t++) {
+            pool.execute(() -> {
+                for (var i = 0; i < 10000; i++) {
+                    if (!expected.equals(Moematter.formatWithLocale((Number) 1234567)))
+                        bad.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, bad.get());
+        assertEquals(NumberFormat.getNumberInstance(Locale.getDefault()).format(1.5), Moematter.formatWithLocale(1.5));
+    }
+
+    @Test
+    public void testMarkupHelpers() {
+        var nested = new Object() {
+            @Override
+            public String toString() {
+                return Moematter.item(2000000);
+            }
+        };
+        assertEquals("#b#i2000000##k", Moematter.blue(nested));
+        assertEquals("#eBold#n", Moematter.bold("Bold"));
+        assertEquals("#kBlack", Moematter.black("Black"));
+        assertEquals("#m100000000#", Moematter.map(100000000));
+        assertEquals("#q-1#", Moematter.skillName(-1));
+        assertEquals("#ra#k", Moematter.red("a"));
+    }
+}
@@ -1,5 +1,7 @@
 package moe.maple.api.script.test.stringbuilder;
 
+import moe.maple.api.script.util.IntSet;
+import moe.maple.api.script.util.builder.MenuMarkup;
 import moe.maple.api.script.util.builder.ScriptMenuBuilder;
 import moe.maple.api.script.util.builder.ScriptStringBuilder;
 import org.junit.jupiter.api.Test;
@@ -31,4 +33,57 @@ public class MenuTest {
         assertEquals(options, Set.of(0, 1, 2, 3));
     }
 
+    @Test
+    public void testRecordedIndices() {
+        var builder = new ScriptMenuBuilder<>().append("#L9#raw#l").newLine().appendMenu("zero", "", "two").appendMenuItem(70000, "far");
+        var recorded = builder.getMenuIndices();
+        assertArrayEquals(new int[] { 0, 2, 70000 }, recorded.toArray());
+        assertFalse(recorded.contains(1));
+        assertArrayEquals(new int[] { 0, 2, 9, 70000 }, ScriptMenuBuilder.parseMenuIndices(builder.build()).toArray());
+        assertTrue(ScriptMenuBuilder.parseMenuIndices("No menu here.").isEmpty());
+
+        var set = IntSet.of(-3, 64, 4095, 4096, 64, -3);
+        assertEquals(4, set.size());
+        assertArrayEquals(new int[] { -3, 64, 4095, 4096 }, set.toArray());
+        assertTrue(set.contains(4096));
+        assertFalse(set.contains(63));
+    }
+
+    @Test
+    public void testMarkupScanner() {
+        var text = "#Lx#bad#l #L12#Twelve#l #L3#\"quoted\"#l #L4##l #L2147483648#big#l #L7#Seven#l";
+        var markup = MenuMarkup.scan(text);
+        assertEquals(3, markup.size());
+        assertArrayEquals(new int[] { 4, 7, 12 }, markup.indices().toArray());
+        assertEquals(12, markup.index(0));
+        assertEquals("Twelve", text.substring(markup.labelStart(0), markup.labelEnd(0)));
+        assertEquals("#L12#Twelve#l", text.substring(markup.start(0), markup.end(0)));
+        assertEquals("", text.substring(markup.labelStart(1), markup.labelEnd(1)));
+        assertThrows(UnsupportedOperationException.class, () -> markup.indices().add(1));
+
+        var prompt = "#L0#zero#l #L1#one#l";
+        assertSame(MenuMarkup.of(prompt), MenuMarkup.of(prompt));
+        assertNotSame(MenuMarkup.of(prompt), MenuMarkup.of(new String(prompt)));
+        assertTrue(MenuMarkup.of(new StringBuilder("plain")).isEmpty());
+    }
+
+    @Test
+    public void testPooledBuilder() {
+        var first = ScriptStringBuilder.acquire();
+        first.blue().appendMenu("zero", "one");
+        var nested = ScriptStringBuilder.acquire();
+        assertNotSame(first, nested);
+        nested.release();
+        var indices = first.getMenuIndices();
+        first.release();
+
+        var again = ScriptStringBuilder.acquire();
+        assertSame(first, again);
+        assertEquals("Invalid input.", again.build());
+        assertTrue(again.getMenuIndices().isEmpty());
+        again.appendMenuItem(0, "zero");
+        assertEquals("#L0#zero#l", again.build());
+        again.release();
+        assertArrayEquals(new int[] { 0, 1 }, indices.toArray());
+    }
 }